@@ -2,6 +2,7 @@ plugins {
     id("java")
     id("org.jetbrains.kotlin.jvm") version "1.9.25"
     id("org.jetbrains.intellij") version "1.17.4"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "cn.bigcoder.soa.tool"
@@ -15,6 +16,11 @@ repositories {
     }
 }
 
+dependencies {
+    // Light platform tests (LightJavaCodeInsightFixtureTestCase) are JUnit 3/4 based
+    testImplementation("junit:junit:4.13.2")
+}
+
 intellij {
     version.set("2023.2.6")
     type.set("IC") // Target IDE Platform
@@ -22,6 +28,21 @@ intellij {
     plugins.set(listOf("java"))
 }
 
+// JMH benchmarks live in src/jmh/java, run with ./gradlew jmh
+jmh {
+    jmhVersion.set("1.37")
+    // Allocation rate per benchmark (-prof gc)
+    profilers.add("gc")
+    resultFormat.set("JSON")
+}
+
+configurations {
+    // Benchmarks call plugin code that touches IntelliJ Platform classes (e.g. ProgressManager)
+    named("jmhImplementation") {
+        extendsFrom(configurations.compileOnly.get())
+    }
+}
+
 tasks {
     // Set the JVM compatibility versions
     withType<JavaCompile> {
@@ -32,6 +53,30 @@ tasks {
         kotlinOptions.jvmTarget = "17"
     }
 
+    test {
+        // The scan benchmark takes minutes, it only runs through the scanBenchmark task
+        exclude("**/RpcMethodScanBenchmark.class")
+    }
+
+    // Scan benchmark, e.g. ./gradlew scanBenchmark -Psoa.benchmark.sizes=1000,10000
+    register<Test>("scanBenchmark") {
+        description = "Runs the full scan / incremental update benchmark."
+        group = "verification"
+        testClassesDirs = sourceSets["test"].output.classesDirs
+        classpath = sourceSets["test"].runtimeClasspath
+        filter {
+            includeTestsMatching("*RpcMethodScanBenchmark")
+        }
+        listOf("soa.benchmark.sizes", "soa.benchmark.soaFraction").forEach { key ->
+            project.findProperty(key)?.let { systemProperty(key, it) }
+        }
+        systemProperty("soa.benchmark.output",
+            layout.buildDirectory.file("reports/soa-scan-benchmark.json").get().asFile.path)
+        // 50k generated classes need a bigger heap than the default test JVM
+        maxHeapSize = project.findProperty("soa.benchmark.maxHeapSize")?.toString() ?: "4g"
+        outputs.upToDateWhen { false }
+    }
+
     patchPluginXml {
         sinceBuild.set("232")
         untilBuild.set("301.*")
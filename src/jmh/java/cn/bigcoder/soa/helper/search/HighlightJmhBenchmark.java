@@ -0,0 +1,85 @@
+package cn.bigcoder.soa.helper.search;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * 高亮 JMH 基准
+ *
+ * 模拟结果列表渲染一屏结果：对 500 个方法名计算高亮，对比原先每行新建匹配器并拼接 HTML 的做法（{@link #highlightMatches}）、
+ * 每行新建匹配器只计算区间，以及渲染器中复用同一个匹配器的 {@link CamelCaseMatcher#matchRanges}。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HighlightJmhBenchmark {
+
+    private static final int VISIBLE_ROWS = 500;
+    private static final String OPEN_TAG = "<font style='background-color: #BA9752;color: black;'>";
+    private static final String CLOSE_TAG = "</font>";
+
+    @Param({"getuser", "guo", "createpay"})
+    public String query;
+
+    private String[] names;
+
+    @Setup
+    public void setUp() {
+        List<RpcMethodInfo> methods = MethodNameCorpus.generate(VISIBLE_ROWS, 42);
+        names = methods.stream().map(RpcMethodInfo::methodName).toArray(String[]::new);
+    }
+
+    @Benchmark
+    public void highlightMatches(Blackhole blackhole) {
+        for (String name : names) {
+            blackhole.consume(highlightMatches(name, query));
+        }
+    }
+
+    @Benchmark
+    public void matchRanges(Blackhole blackhole) {
+        for (String name : names) {
+            blackhole.consume(new CamelCaseMatcher(query).matchRanges(name));
+        }
+    }
+
+    @Benchmark
+    public void sharedMatcherRanges(Blackhole blackhole) {
+        CamelCaseMatcher matcher = new CamelCaseMatcher(query);
+        for (String name : names) {
+            blackhole.consume(matcher.matchRanges(name));
+        }
+    }
+
+    /**
+     * 基线：渲染器改为直接绘制高亮片段之前，每行新建匹配器并把匹配区间拼接为 HTML
+     */
+    private static String highlightMatches(String input, String query) {
+        int[] ranges = new CamelCaseMatcher(query).matchRanges(input);
+        StringBuilder result = new StringBuilder(
+                input.length() + ranges.length * (OPEN_TAG.length() + CLOSE_TAG.length()));
+        int last = 0;
+        for (int i = 0; i < ranges.length; i += 2) {
+            result.append(input, last, ranges[i]).append(OPEN_TAG).append(input, ranges[i], ranges[i + 1])
+                    .append(CLOSE_TAG);
+            last = ranges[i + 1];
+        }
+        result.append(input, last, input.length());
+        return result.toString();
+    }
+}
@@ -0,0 +1,99 @@
+package cn.bigcoder.soa.helper.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 基准测试用的合成方法语料
+ *
+ * 动词、名词按近似 Zipf 分布选取（get/query 等常用词出现得更多），每个方法名由 1 个动词、1-3 个名词
+ * 以及可选的后缀（ById、List、V2 等）组成；每 8 个方法属于同一个实现类，类分布在若干包中。
+ * 相同的 seed 生成相同的语料，便于对比不同版本的结果。
+ */
+public final class MethodNameCorpus {
+
+    private static final String[] VERBS = {"get", "query", "create", "update", "delete", "check", "list", "batch",
+            "search", "sync", "submit", "cancel", "validate", "save", "load", "find", "calc", "refresh", "notify",
+            "build"};
+    private static final String[] NOUNS = {"User", "Order", "Product", "Hotel", "Flight", "Price", "Coupon",
+            "Member", "Payment", "Refund", "Inventory", "Address", "Invoice", "Status", "Health", "Info", "Detail",
+            "Config", "Room", "Ticket", "Booking", "Account", "Message", "Channel", "Policy", "Rule", "Task",
+            "Report", "Supplier", "Contract", "Voucher", "Traveler", "Passenger", "City", "Region", "Currency"};
+    private static final String[] SUFFIXES = {"ById", "List", "V2", "Async", "ByPage", "Count", "Info", "Detail"};
+    private static final String[] DOMAINS = {"hotel", "flight", "train", "order", "payment", "member", "coupon",
+            "ticket", "supplier", "settlement"};
+    private static final int METHODS_PER_CLASS = 8;
+
+    private MethodNameCorpus() {
+    }
+
+    /**
+     * 生成指定数量的方法
+     */
+    public static List<RpcMethodInfo> generate(int size, long seed) {
+        Random random = new Random(seed);
+        List<RpcMethodInfo> methods = new ArrayList<>(size);
+        String className = null;
+        String filePath = null;
+        for (int i = 0; i < size; i++) {
+            if (i % METHODS_PER_CLASS == 0) {
+                int classIndex = i / METHODS_PER_CLASS;
+                String domain = DOMAINS[classIndex % DOMAINS.length];
+                className = "com.ctrip." + domain + ".service" + (classIndex % 997) + "."
+                        + NOUNS[zipf(random, NOUNS.length)] + NOUNS[random.nextInt(NOUNS.length)] + "ServiceImpl"
+                        + classIndex;
+                filePath = "/workspace/" + domain + "/src/main/java/" + className.replace('.', '/') + ".java";
+            }
+            methods.add(new RpcMethodInfo(methodName(random), className, filePath, 100 + (i % METHODS_PER_CLASS) * 400));
+        }
+        return methods;
+    }
+
+    /**
+     * 从语料中抽取方法名的缩写作为查询词，模拟真实输入：整词前缀（getuser）、驼峰首字母（guo）以及混合形式
+     */
+    public static String[] queries(List<RpcMethodInfo> methods, int count, long seed) {
+        Random random = new Random(seed);
+        String[] queries = new String[count];
+        for (int i = 0; i < count; i++) {
+            String name = methods.get(random.nextInt(methods.size())).methodName();
+            queries[i] = switch (i % 3) {
+                case 0 -> name.substring(0, Math.min(name.length(), 3 + random.nextInt(6))).toLowerCase();
+                case 1 -> camelInitials(name);
+                default -> camelInitials(name) + name.substring(name.length() - 2).toLowerCase();
+            };
+        }
+        return queries;
+    }
+
+    private static String methodName(Random random) {
+        StringBuilder name = new StringBuilder(VERBS[zipf(random, VERBS.length)]);
+        int nounCount = 1 + random.nextInt(3);
+        for (int j = 0; j < nounCount; j++) {
+            name.append(NOUNS[zipf(random, NOUNS.length)]);
+        }
+        if (random.nextInt(4) == 0) {
+            name.append(SUFFIXES[random.nextInt(SUFFIXES.length)]);
+        }
+        return name.toString();
+    }
+
+    private static String camelInitials(String name) {
+        StringBuilder initials = new StringBuilder().append(Character.toLowerCase(name.charAt(0)));
+        for (int i = 1; i < name.length(); i++) {
+            if (Character.isUpperCase(name.charAt(i))) {
+                initials.append(Character.toLowerCase(name.charAt(i)));
+            }
+        }
+        return initials.toString();
+    }
+
+    /**
+     * 近似 Zipf 分布的下标：下标越小出现概率越高
+     */
+    private static int zipf(Random random, int size) {
+        double value = Math.pow(random.nextDouble(), 2.0);
+        return (int) (value * size);
+    }
+}
@@ -0,0 +1,91 @@
+package cn.bigcoder.soa.helper.search;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * 打分函数 JMH 基准
+ *
+ * 对语料中的全部方法名做一次 {@link CamelCaseMatcher#match} 匹配打分（含高亮区间）。原先打分使用 Levenshtein
+ * 动态规划，这里保留一个 Levenshtein 实现作为对照，便于观察两者差距。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class RpcMethodScoreJmhBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    @Param({"getuser", "guo", "createpay"})
+    public String query;
+
+    private String[] names;
+    private char[][] lowerNames;
+    private char[] queryChars;
+    private CamelCaseMatcher matcher;
+
+    @Setup
+    public void setUp() {
+        List<RpcMethodInfo> methods = MethodNameCorpus.generate(size, 42);
+        names = new String[methods.size()];
+        lowerNames = new char[methods.size()][];
+        for (int i = 0; i < methods.size(); i++) {
+            names[i] = methods.get(i).methodName();
+            lowerNames[i] = names[i].toLowerCase().toCharArray();
+        }
+        queryChars = query.toCharArray();
+        matcher = new CamelCaseMatcher(query);
+    }
+
+    @Benchmark
+    public void camelCaseMatch(Blackhole blackhole) {
+        for (String name : names) {
+            blackhole.consume(matcher.match(name));
+        }
+    }
+
+    @Benchmark
+    public void levenshteinDistance(Blackhole blackhole) {
+        for (char[] name : lowerNames) {
+            blackhole.consume(levenshtein(name, queryChars));
+        }
+    }
+
+    /**
+     * 原先打分中使用的编辑距离，仅作对照
+     */
+    private static int levenshtein(char[] s1, char[] s2) {
+        int[] previous = new int[s2.length + 1];
+        int[] current = new int[s2.length + 1];
+        for (int j = 0; j <= s2.length; j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= s1.length; i++) {
+            current[0] = i;
+            for (int j = 1; j <= s2.length; j++) {
+                int cost = s1[i - 1] == s2[j - 1] ? 0 : 1;
+                current[j] = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[s2.length];
+    }
+}
@@ -0,0 +1,83 @@
+package cn.bigcoder.soa.helper.search;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 方法搜索 JMH 基准
+ *
+ * 覆盖 {@link RpcMethodCache#search} 实际调用的 {@link RpcMethodNameIndex#search}、逐键输入的会话搜索以及打开搜索框时的排序列表。
+ * Throughput 给出吞吐，SampleTime 给出 p99 等延迟分位，分配速率由 build.gradle.kts 中配置的 gc profiler 输出。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class RpcMethodSearchJmhBenchmark {
+
+    private static final int QUERY_COUNT = 64;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    private RpcMethodNameIndex index;
+    private String[] queries;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        List<RpcMethodInfo> methods = MethodNameCorpus.generate(size, 42);
+        index = new RpcMethodNameIndex();
+        methods.forEach(index::add);
+        queries = MethodNameCorpus.queries(methods, QUERY_COUNT, 7);
+    }
+
+    private String nextQuery() {
+        String query = queries[next];
+        next = (next + 1) % queries.length;
+        return query;
+    }
+
+    /**
+     * 一次完整的搜索：位图过滤、子序列匹配、打分及前 500 名排序
+     */
+    @Benchmark
+    public List<RpcMethodInfo> search() {
+        return index.search(nextQuery());
+    }
+
+    /**
+     * 逐键输入一个查询词，每次按键都在会话中搜索一次
+     */
+    @Benchmark
+    public int sessionKeystrokes() {
+        String query = nextQuery();
+        RpcMethodNameIndex.SearchSession session = index.newSearchSession();
+        int total = 0;
+        for (int i = 1; i <= query.length(); i++) {
+            total += session.search(query.substring(0, i)).size();
+        }
+        return total;
+    }
+
+    /**
+     * 只做匹配，不打分、不截断
+     */
+    @Benchmark
+    public List<RpcMethodInfo> matchOnly() {
+        return index.findSubsequenceMatches(nextQuery());
+    }
+}
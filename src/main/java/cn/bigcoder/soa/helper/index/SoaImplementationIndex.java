@@ -0,0 +1,247 @@
+package cn.bigcoder.soa.helper.index;
+
+import cn.bigcoder.soa.helper.util.SoaMethodUtil;
+import com.intellij.ide.highlighter.JavaFileType;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiAnnotation;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiJavaCodeReferenceElement;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiModifierList;
+import com.intellij.psi.PsiReferenceList;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.ProjectScope;
+import com.intellij.psi.search.searches.AnnotatedElementsSearch;
+import com.intellij.util.indexing.DataIndexer;
+import com.intellij.util.indexing.DefaultFileTypeSpecificInputFilter;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.indexing.FileBasedIndexExtension;
+import com.intellij.util.indexing.FileContent;
+import com.intellij.util.indexing.ID;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.DataInputOutputUtil;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * SOA 实现类文件索引
+ *
+ * 以 Java 源文件中 implements 子句引用的接口简单名为 key，记录实现类的全限定名及其方法（方法名、偏移量、是否有
+ * {@code @Override} 注解）。索引只依赖单个文件的语法结构，不做任何引用解析，由 IDE 索引器增量维护。
+ *
+ * 全量扫描时先通过注解索引找到所有带 {@code @BaijiContract} 注解的接口，再用接口简单名查询本索引，
+ * 即可得到所有 SOA 实现类及其方法，无需遍历项目中的全部类。
+ */
+public class SoaImplementationIndex extends FileBasedIndexExtension<String, List<SoaImplementationIndex.ImplementationInfo>> {
+
+    public static final ID<String, List<ImplementationInfo>> NAME = ID.create("cn.bigcoder.soa.helper.SoaImplementationIndex");
+
+    private static final String OVERRIDE_ANNOTATION_NAME = "Override";
+
+    @Override
+    public @NotNull ID<String, List<ImplementationInfo>> getName() {
+        return NAME;
+    }
+
+    @Override
+    public @NotNull DataIndexer<String, List<ImplementationInfo>, FileContent> getIndexer() {
+        return inputData -> {
+            PsiFile psiFile = inputData.getPsiFile();
+            if (!(psiFile instanceof PsiJavaFile javaFile)) {
+                return Collections.emptyMap();
+            }
+            Map<String, List<ImplementationInfo>> result = new HashMap<>();
+            for (PsiClass psiClass : javaFile.getClasses()) {
+                indexClass(psiClass, result);
+            }
+            return result;
+        };
+    }
+
+    /**
+     * 索引类及其内部类，key 为 implements 子句中接口的简单名
+     */
+    private static void indexClass(PsiClass psiClass, Map<String, List<ImplementationInfo>> result) {
+        PsiReferenceList implementsList = psiClass.getImplementsList();
+        String className = psiClass.getQualifiedName();
+        if (implementsList != null && className != null) {
+            PsiJavaCodeReferenceElement[] references = implementsList.getReferenceElements();
+            if (references.length > 0) {
+                ImplementationInfo info = new ImplementationInfo(className, collectMethods(psiClass));
+                for (PsiJavaCodeReferenceElement reference : references) {
+                    String interfaceName = reference.getReferenceName();
+                    if (interfaceName != null) {
+                        result.computeIfAbsent(interfaceName, k -> new ArrayList<>()).add(info);
+                    }
+                }
+            }
+        }
+        for (PsiClass innerClass : psiClass.getInnerClasses()) {
+            indexClass(innerClass, result);
+        }
+    }
+
+    private static List<MethodInfo> collectMethods(PsiClass psiClass) {
+        List<MethodInfo> methods = new ArrayList<>();
+        for (PsiMethod method : psiClass.getMethods()) {
+            if (method.isConstructor()) {
+                continue;
+            }
+            methods.add(new MethodInfo(method.getName(), method.getTextOffset(), hasOverrideAnnotation(method)));
+        }
+        return methods;
+    }
+
+    /**
+     * 按注解的引用名判断是否有 {@code @Override}，索引阶段不能做引用解析
+     */
+    private static boolean hasOverrideAnnotation(PsiMethod method) {
+        PsiModifierList modifierList = method.getModifierList();
+        for (PsiAnnotation annotation : modifierList.getAnnotations()) {
+            PsiJavaCodeReferenceElement nameReference = annotation.getNameReferenceElement();
+            if (nameReference != null && OVERRIDE_ANNOTATION_NAME.equals(nameReference.getReferenceName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public @NotNull KeyDescriptor<String> getKeyDescriptor() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @Override
+    public @NotNull DataExternalizer<List<ImplementationInfo>> getValueExternalizer() {
+        return new ImplementationInfoExternalizer();
+    }
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+
+    @Override
+    public FileBasedIndex.@NotNull InputFilter getInputFilter() {
+        return new DefaultFileTypeSpecificInputFilter(JavaFileType.INSTANCE);
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+
+    /**
+     * 查找所有带 {@code @BaijiContract} 注解的接口，需要在读操作中调用
+     *
+     * @param project 项目
+     * @return 接口简单名 → 接口中声明的方法名集合
+     */
+    public static Map<String, Set<String>> findContractInterfaces(Project project) {
+        GlobalSearchScope allScope = GlobalSearchScope.allScope(project);
+        PsiClass annotationClass = JavaPsiFacade.getInstance(project)
+                .findClass(SoaMethodUtil.BAIJI_CONTRACT_CLASS_NAME, allScope);
+        if (annotationClass == null) {
+            return Collections.emptyMap();
+        }
+        Map<String, Set<String>> result = new HashMap<>();
+        for (PsiClass contract : AnnotatedElementsSearch.searchPsiClasses(annotationClass, allScope).findAll()) {
+            if (!contract.isInterface() || contract.getName() == null) {
+                continue;
+            }
+            Set<String> methodNames = result.computeIfAbsent(contract.getName(), k -> new HashSet<>());
+            for (PsiMethod method : contract.getMethods()) {
+                methodNames.add(method.getName());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 遍历工作区中实现了指定接口的类，需要在读操作中调用
+     *
+     * @param project 项目
+     * @param interfaceName 接口简单名
+     * @param processor 处理器，参数为实现类所在文件及该文件中实现了此接口的类
+     */
+    public static void processImplementations(Project project, String interfaceName,
+            ImplementationProcessor processor) {
+        FileBasedIndex.getInstance().processValues(NAME, interfaceName, null, (file, infos) -> {
+            if (SoaMethodUtil.isWorkspaceSourcePath(file.getPath())) {
+                processor.process(file, infos);
+            }
+            return true;
+        }, ProjectScope.getContentScope(project));
+    }
+
+    @FunctionalInterface
+    public interface ImplementationProcessor {
+
+        void process(VirtualFile file, List<ImplementationInfo> implementations);
+    }
+
+    /**
+     * @param className 实现类全限定名
+     * @param methods 实现类中的方法
+     */
+    public record ImplementationInfo(String className, List<MethodInfo> methods) {
+
+    }
+
+    /**
+     * @param methodName 方法名称
+     * @param textOffset 方法在文件中的偏移量
+     * @param override 是否有 {@code @Override} 注解
+     */
+    public record MethodInfo(String methodName, int textOffset, boolean override) {
+
+    }
+
+    private static class ImplementationInfoExternalizer implements DataExternalizer<List<ImplementationInfo>> {
+
+        @Override
+        public void save(@NotNull DataOutput out, List<ImplementationInfo> value) throws IOException {
+            DataInputOutputUtil.writeINT(out, value.size());
+            for (ImplementationInfo info : value) {
+                out.writeUTF(info.className());
+                DataInputOutputUtil.writeINT(out, info.methods().size());
+                for (MethodInfo method : info.methods()) {
+                    out.writeUTF(method.methodName());
+                    DataInputOutputUtil.writeINT(out, method.textOffset());
+                    out.writeBoolean(method.override());
+                }
+            }
+        }
+
+        @Override
+        public List<ImplementationInfo> read(@NotNull DataInput in) throws IOException {
+            int size = DataInputOutputUtil.readINT(in);
+            List<ImplementationInfo> result = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                String className = in.readUTF();
+                int methodCount = DataInputOutputUtil.readINT(in);
+                List<MethodInfo> methods = new ArrayList<>(methodCount);
+                for (int j = 0; j < methodCount; j++) {
+                    methods.add(new MethodInfo(in.readUTF(), DataInputOutputUtil.readINT(in), in.readBoolean()));
+                }
+                result.add(new ImplementationInfo(className, methods));
+            }
+            return result;
+        }
+    }
+}
@@ -1,63 +1,253 @@
 package cn.bigcoder.soa.helper.listener;
 
 import cn.bigcoder.soa.helper.search.RpcMethodCache;
-import com.intellij.openapi.project.DumbService;
+import cn.bigcoder.soa.helper.util.SoaMethodUtil;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.vfs.VfsUtilCore;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.openapi.vfs.VirtualFileManager;
 import com.intellij.openapi.vfs.newvfs.BulkFileListener;
 import com.intellij.openapi.vfs.newvfs.events.VFileContentChangeEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileCopyEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileCreateEvent;
 import com.intellij.openapi.vfs.newvfs.events.VFileDeleteEvent;
 import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
-import com.intellij.psi.PsiFile;
-import com.intellij.psi.PsiManager;
-import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.vfs.newvfs.events.VFileMoveEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFilePropertyChangeEvent;
+import com.intellij.util.Alarm;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * 文件变更监听
+ *
+ * 变更的文件先合并到待更新集合中，防抖时间窗口结束后由一个可取消的后台任务统一更新，
+ * 同一文件在窗口内无论发生多少次变更都只重新解析一次（如 git checkout、Maven 重新导入时的大量事件）。
+ *
+ * 新建、复制、移动的未跟踪 Java 文件先做内容预过滤，只有可能包含 SOA 实现类的文件才解析并加入缓存，无需全量扫描。
+ */
 public class FileChangeListener implements BulkFileListener {
 
+    /**
+     * 防抖间隔（毫秒），窗口内的变更合并为一次更新
+     */
+    private static final int FLUSH_DELAY_MILLIS = 300;
+
     private final Project project;
     private final RpcMethodCache cache;
+    /**
+     * 待更新的文件（按加入顺序去重）→ 是否为已跟踪的 SOA 文件，未跟踪的文件更新前需先做内容预过滤
+     */
+    private final Map<VirtualFile, Boolean> dirtyFiles = new LinkedHashMap<>();
+    private final Alarm flushAlarm;
+    /**
+     * 是否有更新任务正在执行，同一时间只执行一个更新任务
+     */
+    private final AtomicBoolean flushing = new AtomicBoolean();
 
     public FileChangeListener(Project project, RpcMethodCache cache) {
         this.project = project;
         this.cache = cache;
-        // 通过全局消息总线订阅
-        project.getMessageBus().connect().subscribe(VirtualFileManager.VFS_CHANGES, this);
+        this.flushAlarm = new Alarm(Alarm.ThreadToUse.POOLED_THREAD, cache);
+        // 通过项目消息总线订阅，随缓存服务一起释放
+        project.getMessageBus().connect(cache).subscribe(VirtualFileManager.VFS_CHANGES, this);
     }
 
     @Override
     public void after(@NotNull List<? extends VFileEvent> events) {
+        boolean changed = false;
         for (VFileEvent event : events) {
-            VirtualFile file = event.getFile();
-            if (file == null || !cache.isTrackedFile(file.getPath())) {
-                continue;
+            if (event instanceof VFileDeleteEvent deleteEvent) {
+                // 文件删除：移除缓存和跟踪，只涉及该文件的方法，直接处理
+                VirtualFile file = deleteEvent.getFile();
+                synchronized (dirtyFiles) {
+                    dirtyFiles.remove(file);
+                }
+                if (file.isDirectory()) {
+                    cache.removeTrackedFilesUnder(file.getPath());
+                } else if (cache.isTrackedFile(file.getPath())) {
+                    cache.removeTrackedFile(file.getPath());
+                }
+            } else if (event instanceof VFileContentChangeEvent || event instanceof VFileCreateEvent) {
+                // 文件内容变更或新建：加入待更新集合，稍后统一增量更新
+                changed |= markDirty(event.getFile());
+            } else if (event instanceof VFileCopyEvent copyEvent) {
+                changed |= markDirty(copyEvent.findCreatedFile());
+            } else if (event instanceof VFileMoveEvent moveEvent) {
+                changed |= markMoved(moveEvent.getFile(), moveEvent.getOldPath());
+            } else if (event instanceof VFilePropertyChangeEvent propertyEvent && propertyEvent.isRename()) {
+                changed |= markMoved(propertyEvent.getFile(), propertyEvent.getOldPath());
             }
+        }
+        if (changed) {
+            scheduleFlush();
+        }
+    }
+
+    /**
+     * 文件移动或重命名：旧路径下的缓存直接移除，新路径作为变更文件重新解析
+     */
+    private boolean markMoved(VirtualFile file, String oldPath) {
+        if (file.isDirectory()) {
+            // 目录移动：其中已跟踪的文件路径全部失效，移动后的文件重新预过滤
+            cache.removeTrackedFilesUnder(oldPath);
+            return markDirty(file, false);
+        }
+        if (cache.isTrackedFile(oldPath)) {
+            cache.removeTrackedFile(oldPath);
+            return markDirty(file, true);
+        }
+        return markDirty(file);
+    }
+
+    private boolean markDirty(VirtualFile file) {
+        if (file == null) {
+            return false;
+        }
+        if (cache.isTrackedFile(file.getPath())) {
+            return markDirty(file, true);
+        }
+        // 未跟踪的文件（新建的类、新建的目录等）先记录下来，更新时再做内容预过滤
+        if (file.isDirectory() || SoaMethodUtil.isWorkspaceSourcePath(file.getPath())) {
+            return markDirty(file, false);
+        }
+        return false;
+    }
 
-            if (event instanceof VFileDeleteEvent) {
-                // 文件删除：移除缓存和跟踪
-                cache.removeTrackedFile(file.getPath());
-            } else if (event instanceof VFileContentChangeEvent) {
-                // 文件内容变更：增量更新
-                handleFileContentChangeEvent(file);
+    private boolean markDirty(VirtualFile file, boolean tracked) {
+        synchronized (dirtyFiles) {
+            Boolean previous = dirtyFiles.get(file);
+            if (previous != null && (previous || !tracked)) {
+                return false;
             }
+            dirtyFiles.put(file, tracked);
+            return true;
         }
     }
 
-    private void handleFileContentChangeEvent(VirtualFile file) {
-        // 等待索引就绪后再访问 PSI，避免 Stub Index 与文件内容不一致
-        DumbService.getInstance(project).runWhenSmart(() ->
-                ApplicationManager.getApplication().runReadAction(() -> {
-                    if (!file.isValid()) {
-                        return;
-                    }
-                    PsiFile psiFile = PsiManager.getInstance(project).findFile(file);
-                    if (psiFile != null) {
-                        cache.updateCacheForFile(psiFile);
+    /**
+     * 重新开始防抖计时
+     */
+    private void scheduleFlush() {
+        if (flushAlarm.isDisposed()) {
+            return;
+        }
+        flushAlarm.cancelAllRequests();
+        flushAlarm.addRequest(this::flush, FLUSH_DELAY_MILLIS);
+    }
+
+    private void flush() {
+        if (!flushing.compareAndSet(false, true)) {
+            // 上一次更新尚未结束，结束后再处理新的变更
+            scheduleFlush();
+            return;
+        }
+        Map<VirtualFile, Boolean> files;
+        synchronized (dirtyFiles) {
+            files = new LinkedHashMap<>(dirtyFiles);
+            dirtyFiles.clear();
+        }
+        if (files.isEmpty()) {
+            flushing.set(false);
+            return;
+        }
+        ProgressManager.getInstance().run(new Task.Backgroundable(project, "正在更新 SOA 方法索引...", true) {
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                updateFiles(files, indicator);
+            }
+
+            @Override
+            public void onFinished() {
+                flushing.set(false);
+            }
+        });
+    }
+
+    private void updateFiles(Map<VirtualFile, Boolean> dirty, ProgressIndicator indicator) {
+        indicator.setIndeterminate(false);
+        List<VirtualFile> files = new ArrayList<>(dirty.keySet());
+        for (int i = 0; i < files.size(); i++) {
+            VirtualFile file = files.get(i);
+            if (indicator.isCanceled()) {
+                requeue(files.subList(i, files.size()), dirty);
+                return;
+            }
+            indicator.setFraction((double) i / files.size());
+            indicator.setText2(file.getName());
+            try {
+                if (!file.isValid()) {
+                    continue;
+                }
+                if (file.isDirectory()) {
+                    // 新建或移入的目录：其中的 Java 文件不会单独产生事件，逐个预过滤
+                    for (VirtualFile child : ReadAction.compute(() -> collectSourceFiles(file))) {
+                        if (mayContainSoaClass(child)) {
+                            cache.updateFile(child, indicator);
+                        }
                     }
-                })
-        );
+                } else if (dirty.get(file) || mayContainSoaClass(file)) {
+                    // 每个文件单独一个非阻塞读操作：等待索引就绪后再访问 PSI，写操作到来时只重试当前文件
+                    cache.updateFile(file, indicator);
+                }
+            } catch (ProcessCanceledException e) {
+                requeue(files.subList(i, files.size()), dirty);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * 收集目录中属于项目源码的 Java 文件，跳过排除目录（如构建输出），需要在读操作中调用
+     */
+    private List<VirtualFile> collectSourceFiles(VirtualFile directory) {
+        List<VirtualFile> result = new ArrayList<>();
+        ProjectFileIndex fileIndex = ProjectFileIndex.getInstance(project);
+        if (!fileIndex.isInContent(directory)) {
+            return result;
+        }
+        VfsUtilCore.iterateChildrenRecursively(directory, fileOrDir -> !fileIndex.isExcluded(fileOrDir), fileOrDir -> {
+            ProgressManager.checkCanceled();
+            if (!fileOrDir.isDirectory() && SoaMethodUtil.isWorkspaceSourcePath(fileOrDir.getPath())) {
+                result.add(fileOrDir);
+            }
+            return true;
+        });
+        return result;
+    }
+
+    /**
+     * 内容预过滤：未跟踪的文件只有在文本中出现 implements 及已知契约接口名时才解析 PSI
+     */
+    private boolean mayContainSoaClass(VirtualFile file) {
+        if (cache.isTrackedFile(file.getPath())) {
+            return true;
+        }
+        try {
+            return cache.mayContainSoaClass(VfsUtilCore.loadText(file));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 任务取消时，未处理的文件放回待更新集合，随下一次变更一起更新
+     */
+    private void requeue(List<VirtualFile> files, Map<VirtualFile, Boolean> dirty) {
+        for (VirtualFile file : files) {
+            markDirty(file, dirty.get(file));
+        }
     }
 }
@@ -251,8 +251,7 @@ public class LogMethodJumpMarkerProvider implements LineMarkerProvider {
         // 预处理模板：${params[N]} → ${params_N}
         String normalizedTemplate = PARAMS_PATTERN.matcher(template).replaceAll("\\${params_$1}");
 
-        TemplateParser parser = new TemplateParser();
-        String url = parser.parse(normalizedTemplate, variables);
+        String url = TemplateParser.getInstance().parse(normalizedTemplate, variables);
         System.out.println("[SOA-Helper-Debug] Generated URL: " + url);
         return url;
     }
@@ -34,6 +34,8 @@ import java.awt.event.MouseEvent;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * SOA 方法日志跳转的 LineMarker 提供者
@@ -53,6 +55,11 @@ public class SoaMethodJumpMarkerProvider implements LineMarkerProvider {
      */
     private static final MomApiVariableGroup MOM_API_GROUP = new MomApiVariableGroup();
 
+    /**
+     * 正在后台解析的跳转（appId#方法名#模板），用于合并对同一图标的重复点击
+     */
+    private static final Set<String> IN_FLIGHT_JUMPS = ConcurrentHashMap.newKeySet();
+
     @Override
     public @Nullable LineMarkerInfo<?> getLineMarkerInfo(@NotNull PsiElement element) {
         // 检查总开关是否启用
@@ -162,7 +169,7 @@ public class SoaMethodJumpMarkerProvider implements LineMarkerProvider {
      * 三条路径：
      * 1. 快速路径：模板没用扩展变量 → 直接跳转
      * 2. 缓存路径：用了扩展变量，缓存命中 → 直接跳转
-     * 3. 异步路径：用了扩展变量，缓存未命中 → 进度框 + 后台请求
+     * 3. 异步路径：用了扩展变量，缓存未命中 → 后台任务请求，状态栏显示进度，完成后打开浏览器
      */
     private void performJump(Project project, String urlTemplate, String appId, String methodName) {
         LOG.info("SOA jump start: appId=" + appId + ", methodName=" + methodName
@@ -177,7 +184,10 @@ public class SoaMethodJumpMarkerProvider implements LineMarkerProvider {
         registry.register(new BasicVariableGroup(appId, methodName));
         registry.register(MOM_API_GROUP);
 
-        TemplateResolver resolver = new TemplateResolver(registry);
+        // 整个扩展字段获取过程的总时间预算，不是单次请求的超时：一次契约平台请求最坏需要连接超时 + 读取超时。
+        // 截止时间会传到 HTTP 请求，连接、读取超时都不超过截止前的剩余时间，慢请求不会一直占用线程和进行中的跳转标记
+        long timeoutMillis = SoaHelperSettings.getInstance().getMomTimeout() * 2L;
+        TemplateResolver resolver = new TemplateResolver(registry, timeoutMillis);
 
         // 判断是否需要异步加载
         if (!resolver.needsAsyncResolve(urlTemplate, basicVars)) {
@@ -194,18 +204,26 @@ public class SoaMethodJumpMarkerProvider implements LineMarkerProvider {
             return;
         }
 
+        // 同一跳转正在后台解析时忽略重复点击
+        String jumpKey = appId + "#" + methodName + "#" + urlTemplate;
+        if (!IN_FLIGHT_JUMPS.add(jumpKey)) {
+            LOG.info("SOA jump already in progress, ignore click: appId=" + appId + ", methodName=" + methodName);
+            return;
+        }
+
         LOG.info("SOA jump requires async extended fields: appId=" + appId + ", methodName=" + methodName);
 
-        // 异步路径：显示进度对话框
-        ProgressManager.getInstance().run(new Task.Modal(project, "正在获取扩展字段...", true) {
+        // 异步路径：后台任务，状态栏显示进度，不阻塞编辑器
+        ProgressManager.getInstance().run(new Task.Backgroundable(project, "正在获取扩展字段...", true) {
             private String resolvedUrl;
             private VariableResolveException error;
 
             @Override
             public void run(@NotNull ProgressIndicator indicator) {
                 indicator.setIndeterminate(true);
+                indicator.setText2(appId + " / " + methodName);
                 try {
-                    resolvedUrl = resolver.resolve(urlTemplate, basicVars);
+                    resolvedUrl = resolver.resolve(urlTemplate, basicVars, indicator);
                 } catch (VariableResolveException e) {
                     error = e;
                 }
@@ -227,6 +245,11 @@ public class SoaMethodJumpMarkerProvider implements LineMarkerProvider {
             public void onCancel() {
                 // 用户取消，静默退出
             }
+
+            @Override
+            public void onFinished() {
+                IN_FLIGHT_JUMPS.remove(jumpKey);
+            }
         });
     }
 }
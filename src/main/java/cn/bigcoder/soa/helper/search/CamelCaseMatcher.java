@@ -0,0 +1,185 @@
+package cn.bigcoder.soa.helper.search;
+
+import java.util.Arrays;
+
+/**
+ * 驼峰感知的方法名匹配器
+ *
+ * 与 IDE 的 MinusculeMatcher 类似：查询词的字符按顺序匹配方法名（不区分大小写），优先延续上一个字符的连续匹配，
+ * 其次匹配单词开头（驼峰大写字母、数字段开头、下划线及包名分隔符之后），例如 guo 匹配 getUserOrder 的 g、U、O，而不是 getUserOrder
+ * 中间的 u、o。匹配、打分和高亮区间在同一次遍历中完成，不使用正则，也不分配与方法名长度相关的矩阵。
+ *
+ * 匹配分两步：先从后向前求出查询词每个字符最晚可以出现的位置，再从前向后选择位置，选择单词开头时不会越过该位置，
+ * 因此只要方法名按顺序包含查询词的全部字符就一定能匹配成功，匹配范围与字符倒排索引的子序列过滤一致。
+ *
+ * 一个匹配器对应一个查询词，内部复用临时数组，不能在多个线程间共享。
+ */
+public final class CamelCaseMatcher {
+
+    /**
+     * 不匹配时的得分
+     */
+    public static final int NO_MATCH = Integer.MIN_VALUE;
+
+    private static final int MATCHED_CHAR_SCORE = 1;
+    private static final int WORD_START_SCORE = 8;
+    private static final int CONTIGUOUS_SCORE = 6;
+    private static final int MID_WORD_PENALTY = 2;
+    private static final int MAX_GAP_PENALTY = 5;
+    private static final int PREFIX_SCORE = 12;
+    private static final int EXACT_SCORE = 20;
+    /**
+     * 结构得分的权重，方法名长度只在结构得分相同时起作用（名称越短越靠前）
+     */
+    private static final int STRUCTURE_WEIGHT = 64;
+
+    private final char[] pattern;
+    /**
+     * 查询词第 k 个字符最晚可以匹配的位置
+     */
+    private final int[] latest;
+    /**
+     * 最近一次匹配的高亮区间，[起始下标, 结束下标) 成对排列
+     */
+    private final int[] ranges;
+    private int rangeCount;
+
+    /**
+     * @param query 搜索词，匹配时不区分大小写
+     */
+    public CamelCaseMatcher(String query) {
+        this(query.toLowerCase().toCharArray());
+    }
+
+    /**
+     * @param lowerPattern 小写搜索词
+     */
+    CamelCaseMatcher(char[] lowerPattern) {
+        this.pattern = lowerPattern;
+        this.latest = new int[lowerPattern.length];
+        this.ranges = new int[lowerPattern.length * 2];
+    }
+
+    /**
+     * 匹配方法名并计算得分，匹配成功后可通过 {@link #ranges()} 获取本次匹配的高亮区间
+     *
+     * @param name 方法名
+     * @return 得分，越大越靠前；不匹配时返回 {@link #NO_MATCH}
+     */
+    public int match(String name) {
+        rangeCount = 0;
+        int length = name.length();
+        int patternLength = pattern.length;
+        if (patternLength == 0 || patternLength > length) {
+            return NO_MATCH;
+        }
+
+        // 从后向前求每个查询字符最晚的位置，同时判断是否按顺序包含全部字符
+        int k = patternLength - 1;
+        for (int i = length - 1; i >= 0 && k >= 0; i--) {
+            if (Character.toLowerCase(name.charAt(i)) == pattern[k]) {
+                latest[k--] = i;
+            }
+        }
+        if (k >= 0) {
+            return NO_MATCH;
+        }
+
+        int score = 0;
+        int previous = -1;
+        for (k = 0; k < patternLength; k++) {
+            char c = pattern[k];
+            int limit = latest[k];
+            int matched;
+            boolean contiguous = previous >= 0 && previous + 1 <= limit
+                    && Character.toLowerCase(name.charAt(previous + 1)) == c;
+            if (contiguous) {
+                matched = previous + 1;
+            } else {
+                // 在不越过最晚位置的前提下优先选择单词开头，没有时退回最早出现的位置
+                int first = -1;
+                matched = -1;
+                for (int i = previous + 1; i <= limit; i++) {
+                    if (Character.toLowerCase(name.charAt(i)) != c) {
+                        continue;
+                    }
+                    if (first < 0) {
+                        first = i;
+                    }
+                    if (isWordStart(name, i)) {
+                        matched = i;
+                        break;
+                    }
+                }
+                if (matched < 0) {
+                    matched = first;
+                }
+            }
+
+            boolean wordStart = isWordStart(name, matched);
+            score += MATCHED_CHAR_SCORE;
+            if (wordStart) {
+                score += WORD_START_SCORE;
+            }
+            if (contiguous) {
+                score += CONTIGUOUS_SCORE;
+            } else if (!wordStart) {
+                // 匹配到单词中间且与上一个字符不连续，跳过的字符越多越不相关
+                score -= MID_WORD_PENALTY + Math.min(matched - previous - 1, MAX_GAP_PENALTY);
+            }
+
+            if (rangeCount > 0 && ranges[rangeCount - 1] == matched) {
+                ranges[rangeCount - 1] = matched + 1;
+            } else {
+                ranges[rangeCount++] = matched;
+                ranges[rangeCount++] = matched + 1;
+            }
+            previous = matched;
+        }
+
+        if (ranges[0] == 0) {
+            score += PREFIX_SCORE;
+            if (patternLength == length) {
+                score += EXACT_SCORE;
+            }
+        }
+        return score * STRUCTURE_WEIGHT - (length - patternLength);
+    }
+
+    /**
+     * @return 最近一次匹配的高亮区间副本，[起始下标, 结束下标) 成对排列，不匹配时为空数组
+     */
+    public int[] ranges() {
+        return Arrays.copyOf(ranges, rangeCount);
+    }
+
+    /**
+     * 匹配方法名并返回高亮区间
+     *
+     * @param name 方法名
+     * @return [起始下标, 结束下标) 成对排列，不匹配时为空数组
+     */
+    public int[] matchRanges(String name) {
+        return match(name) == NO_MATCH ? new int[0] : ranges();
+    }
+
+    /**
+     * 判断位置 i 是否为单词开头：首字符、小写/数字后的大写字母、连续大写中下一个单词的开头（如 HTTPServer 的 S）、
+     * 数字段的开头，以及下划线、$、.（全限定名中的包名分隔符）之后的字符
+     */
+    static boolean isWordStart(String name, int i) {
+        if (i == 0) {
+            return true;
+        }
+        char c = name.charAt(i);
+        char previous = name.charAt(i - 1);
+        if (previous == '_' || previous == '$' || previous == '.') {
+            return c != '_' && c != '$' && c != '.';
+        }
+        if (Character.isUpperCase(c)) {
+            return !Character.isUpperCase(previous)
+                    || (i + 1 < name.length() && Character.isLowerCase(name.charAt(i + 1)));
+        }
+        return Character.isDigit(c) && !Character.isDigit(previous);
+    }
+}
@@ -1,61 +1,106 @@
 package cn.bigcoder.soa.helper.search;
 
+import cn.bigcoder.soa.helper.index.SoaImplementationIndex;
+import cn.bigcoder.soa.helper.index.SoaImplementationIndex.ImplementationInfo;
 import cn.bigcoder.soa.helper.util.SoaMethodUtil;
+import com.intellij.openapi.Disposable;
 import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.progress.ProcessCanceledException;
 import com.intellij.openapi.progress.ProgressIndicator;
 import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.progress.util.ProgressIndicatorUtils;
 import com.intellij.openapi.project.DumbService;
 import com.intellij.openapi.project.IndexNotReadyException;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiManager;
 import com.intellij.psi.PsiMethod;
-import com.intellij.psi.search.ProjectScope;
-import com.intellij.psi.search.PsiShortNamesCache;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.Collections;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
-public class RpcMethodCache {
+public class RpcMethodCache implements Disposable {
 
-    // 移除静态单例实例，改为按项目存储的实例映射
-    private static final Map<Project, RpcMethodCache> instances = new ConcurrentHashMap<>();
+    private static final String BAIJI_CONTRACT_SHORT_NAME = "BaijiContract";
+    /**
+     * 全量扫描的并行度，预留一个核给 UI 线程
+     */
+    private static final int SCAN_PARALLELISM = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
 
     private final Project project;
-    private final Set<RpcMethodInfo> methodCache = ConcurrentHashMap.newKeySet();
     /**
-     * 全量扫描后记录的已知 SOA 类文件路径，用于增量监听过滤
+     * 当前使用的缓存，全量扫描完成后整体替换，扫描期间搜索和增量更新继续使用旧的一代
+     */
+    private volatile RpcMethodGeneration current = new RpcMethodGeneration();
+    /**
+     * 是否正在全量扫描
+     */
+    private final AtomicBoolean scanning = new AtomicBoolean();
+    /**
+     * 全量扫描期间增量更新过的文件路径，新的一代发布后需要在新的一代上重放
+     */
+    private final Set<String> filesUpdatedDuringScan = ConcurrentHashMap.newKeySet();
+    /**
+     * 已知的 {@code @BaijiContract} 接口简单名，用于快速判断未跟踪的文件是否可能是 SOA 实现类，为 null 表示尚未获取
      */
-    private final Set<String> trackedFilePaths = ConcurrentHashMap.newKeySet();
+    private volatile Set<String> contractInterfaceNames;
     private boolean projectIndexReady;
+    /**
+     * 索引持久化存储
+     */
+    private final RpcMethodIndexStorage storage;
+    /**
+     * 是否已从磁盘恢复索引，恢复后无需等待全量扫描即可搜索
+     */
+    private volatile boolean restoredFromStorage;
+    /**
+     * 当前缓存是否完整（由完整的扫描发布或从磁盘恢复），首次扫描完成前缓存不完整，不能持久化
+     */
+    private volatile boolean indexComplete;
     /**
      * 索引构建成功钩子
      */
     private final Map<String, IndexLoadHook> indexLoadHooks = new ConcurrentHashMap<>();
+    /**
+     * 全量扫描线程池，基于 IDE 共享线程池限制并发数
+     */
+    private final ExecutorService scanExecutor = AppExecutorUtil.createBoundedApplicationPoolExecutor(
+            "SOA Helper Scan", SCAN_PARALLELISM);
 
     public RpcMethodCache(Project project) {
         this.project = project;
+        this.storage = new RpcMethodIndexStorage(project);
     }
 
     public void initialize() {
+        // 先从磁盘恢复上次的索引，索引就绪前即可提供搜索
+        restoreFromStorage();
         afterExecuteScan();
     }
 
-    // 修改 getInstance 方法，按项目获取/创建实例
     public static RpcMethodCache getInstance(Project project) {
-        // 为每个项目创建独立实例，避免跨项目缓存污染
-        return instances.computeIfAbsent(project, RpcMethodCache::new);
+        // 项目级服务，每个项目独立实例，项目关闭时随项目释放
+        return project.getService(RpcMethodCache.class);
     }
 
     public String registerIndexLoadHook(IndexLoadHook hook) {
@@ -83,77 +128,154 @@ public class RpcMethodCache {
     }
 
     /**
-     * 带进度指示器的扫描方法 - 分批处理，定期释放读锁
+     * 带进度指示器的扫描方法 - 按契约接口并行查询实现类索引，定期释放读锁
+     *
+     * 在调用线程上同步执行，不能在 EDT 或读操作中调用；已有扫描在执行时直接返回
      */
-    private void scanRpcMethodsWithProgressBatched(ProgressIndicator indicator) {
-        methodCache.clear();
-        trackedFilePaths.clear();
-        
+    void scanRpcMethodsWithProgressBatched(ProgressIndicator indicator) {
+        if (!scanning.compareAndSet(false, true)) {
+            // 已有扫描在执行
+            return;
+        }
+        filesUpdatedDuringScan.clear();
+        // 新的一代只对扫描线程可见，当前缓存保持不变，扫描期间仍可搜索
+        RpcMethodGeneration generation = new RpcMethodGeneration();
+
         // 触发soa服务加载前置钩子
         executeSoaMethodLoadBeforeHook();
-        
+
+        boolean published = false;
+        boolean indexNotReady = false;
         try {
-            indicator.setText("正在获取项目中的所有类...");
-            
-            // 先获取所有类名（快速操作）
-            String[] allClassNames = ApplicationManager.getApplication().runReadAction(
-                (com.intellij.openapi.util.Computable<String[]>) () -> {
-                    PsiShortNamesCache cache = PsiShortNamesCache.getInstance(project);
-                    return cache.getAllClassNames();
-                }
+            indicator.setText("正在查找 SOA 契约接口...");
+
+            // 通过注解索引找到所有 @BaijiContract 接口（接口简单名 → 接口方法名）
+            Map<String, Set<String>> contracts = ApplicationManager.getApplication().runReadAction(
+                (com.intellij.openapi.util.Computable<Map<String, Set<String>>>) () ->
+                    SoaImplementationIndex.findContractInterfaces(project)
             );
 
             indicator.setText("soa-helper 正在扫描...");
             indicator.setIndeterminate(false);
-            
-            // 分批处理，每批100个类，处理完一批后释放读锁
-            int batchSize = 100;
-            for (int batchStart = 0; batchStart < allClassNames.length; batchStart += batchSize) {
-                // 检查任务是否被取消
-                if (indicator.isCanceled()) {
-                    executeSoaMethodLoadAfterHook();
-                    return;
-                }
-                
-                int batchEnd = Math.min(batchStart + batchSize, allClassNames.length);
-                int finalBatchStart = batchStart;
-                
-                // 每批在单独的读操作中处理，处理完立即释放读锁
-                ApplicationManager.getApplication().runReadAction(() -> {
-                    PsiShortNamesCache cache = PsiShortNamesCache.getInstance(project);
-                    
-                    for (int i = finalBatchStart; i < batchEnd; i++) {
-                        // 更新进度
-                        indicator.setFraction((double) i / allClassNames.length);
-                        String className = allClassNames[i];
-                        
-                        // 使用ProjectScope.getContentScope(project)只扫描工作区中的类，不扫描jar包
-                        PsiClass[] classes = cache.getClassesByName(className, ProjectScope.getContentScope(project));
-                        for (PsiClass psiClass : classes) {
-                            if (psiClass == null) {
-                                continue;
-                            }
-                            // 额外检查：确保类文件在工作区中，而不是在外部依赖中
-                            if (SoaMethodUtil.isSoaClass(psiClass)) {
-                                indicator.setText2("发现 SOA 接口: " + className);
-                                processRpcClass(psiClass);
-                            }
-                        }
-                    }
-                });
-                // 读操作结束后，读锁被释放，UI 线程可以获取写锁进行操作
+
+            // 按契约接口并行查询实现类索引，每个接口在单独的非阻塞读操作中处理，写操作到来时让出读锁
+            scanContractsInParallel(contracts, generation, indicator);
+
+            // 一次性替换当前缓存，之后的增量更新直接作用于新的一代
+            current = generation;
+            contractInterfaceNames = new HashSet<>(contracts.keySet());
+            scanning.set(false);
+            published = true;
+            indexComplete = true;
+
+            // 扫描期间变更过的文件，扫描结果可能已过期，在新的一代上重新解析
+            replayFilesUpdatedDuringScan(indicator);
+
+            indicator.setText("扫描完成，共找到 " + generation.size() + " 个 SOA 方法");
+            saveToStorage();
+        } catch (IndexNotReadyException e) {
+            indexNotReady = true;
+        } finally {
+            if (!published) {
+                // 扫描被取消或失败时丢弃新的一代，当前缓存保持不变
+                scanning.set(false);
+                filesUpdatedDuringScan.clear();
             }
-            
-            indicator.setText("扫描完成，共找到 " + methodCache.size() + " 个 SOA 方法");
             // 触发soa服务加载后置钩子
             executeSoaMethodLoadAfterHook();
-        } catch (IndexNotReadyException e) {
-            executeSoaMethodLoadAfterHook();
+        }
+        if (indexNotReady) {
             // 索引未就绪时，不抛出异常，等待索引就绪后重试
             executeStartLoadIndexHook();
         }
     }
 
+    /**
+     * 在当前缓存上重新解析扫描期间变更过的文件
+     */
+    private void replayFilesUpdatedDuringScan(ProgressIndicator indicator) {
+        List<String> filePaths = new ArrayList<>(filesUpdatedDuringScan);
+        filesUpdatedDuringScan.clear();
+        for (String filePath : filePaths) {
+            indicator.checkCanceled();
+            VirtualFile file = LocalFileSystem.getInstance().findFileByPath(filePath);
+            if (file == null || !file.isValid()) {
+                removeTrackedFile(filePath);
+                continue;
+            }
+            // 在读操作中解析、读操作结束后写入，被写操作打断时只重新解析，不会丢失该文件的方法
+            updateFile(file, indicator);
+        }
+    }
+
+    /**
+     * 全量扫描期间记录增量更新过的文件
+     */
+    private void recordUpdateDuringScan(String filePath) {
+        if (scanning.get()) {
+            filesUpdatedDuringScan.add(filePath);
+        }
+    }
+
+    /**
+     * 多个工作线程从同一个队列中领取契约接口并查询其实现类，线程数随 CPU 核数扩展，进度按已完成的接口数汇总
+     */
+    private void scanContractsInParallel(Map<String, Set<String>> contracts, RpcMethodGeneration generation,
+            ProgressIndicator indicator) {
+        Queue<Map.Entry<String, Set<String>>> pending = new ConcurrentLinkedQueue<>(contracts.entrySet());
+        AtomicInteger processed = new AtomicInteger();
+        int total = contracts.size();
+        int workerCount = Math.min(SCAN_PARALLELISM, Math.max(1, total));
+
+        List<Future<?>> workers = new ArrayList<>(workerCount);
+        for (int i = 0; i < workerCount; i++) {
+            workers.add(scanExecutor.submit(() -> {
+                Map.Entry<String, Set<String>> contract;
+                while ((contract = pending.poll()) != null) {
+                    indicator.checkCanceled();
+                    Map.Entry<String, Set<String>> entry = contract;
+                    // 读操作被写操作打断时会重新执行，因此只收集结果，读操作结束后再写入缓存
+                    ScanResult result = ReadAction
+                            .nonBlocking(() -> scanContract(entry.getKey(), entry.getValue()))
+                            .inSmartMode(project)
+                            .wrapProgress(indicator)
+                            .expireWith(this)
+                            .executeSynchronously();
+                    applyScanResult(generation, result);
+                    indicator.setFraction((double) processed.incrementAndGet() / total);
+                    indicator.setText2("发现 SOA 接口: " + entry.getKey());
+                }
+            }));
+        }
+        try {
+            for (Future<?> worker : workers) {
+                ProgressIndicatorUtils.awaitWithCheckCanceled(worker, indicator);
+            }
+        } finally {
+            // 取消或出错时停止尚未结束的工作线程
+            for (Future<?> worker : workers) {
+                worker.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * 查询实现了指定契约接口的类中的 SOA 方法，需要在读操作中调用
+     */
+    private ScanResult scanContract(String interfaceName, Set<String> contractMethodNames) {
+        ScanResult result = new ScanResult();
+        SoaImplementationIndex.processImplementations(project, interfaceName,
+                (file, implementations) -> result.collect(file, implementations, contractMethodNames));
+        return result;
+    }
+
+    private static void applyScanResult(RpcMethodGeneration generation, ScanResult result) {
+        generation.trackAll(result.fileStamps);
+        for (RpcMethodInfo methodInfo : result.methods) {
+            generation.add(methodInfo);
+        }
+    }
+
     /**
      * 执行索引加载钩子
      */
@@ -183,29 +305,33 @@ public class RpcMethodCache {
         }
     }
 
-    private void processRpcClass(PsiClass psiClass) {
-        // 记录该 SOA 类的文件路径，用于后续增量监听
-        trackedFilePaths.add(psiClass.getContainingFile().getVirtualFile().getPath());
-        // 处理类中的所有方法
-        for (PsiMethod method : psiClass.getMethods()) {
-            // 使用宽松模式判断：有 Override 注解的方法默认为RPC方法
-            // 因为分支切换时新版本jar包可能没加载好，只判断严格模式会遗漏方法
-            if (SoaMethodUtil.isSoaMethodLoose(method)) {
-                RpcMethodInfo methodInfo = new RpcMethodInfo(method.getName(), psiClass.getQualifiedName(),
-                        method.getContainingFile().getVirtualFile().getPath(), method.getTextOffset());
-
-                // 添加到缓存，使用方法名作为键，支持模糊搜索
-                addToCache(methodInfo);
+    /**
+     * 快速判断未跟踪的文件内容是否可能包含 SOA 实现类（或新的契约接口），只做文本匹配，不解析 PSI
+     *
+     * @param text 文件内容
+     * @return 可能包含时返回 true，需要进一步解析确认
+     */
+    public boolean mayContainSoaClass(CharSequence text) {
+        String content = text.toString();
+        if (content.contains(BAIJI_CONTRACT_SHORT_NAME)) {
+            return true;
+        }
+        if (!content.contains("implements")) {
+            return false;
+        }
+        Set<String> knownNames = contractInterfaceNames;
+        if (knownNames == null) {
+            // 尚未获取契约接口，无法进一步过滤
+            return true;
+        }
+        for (String name : knownNames) {
+            if (content.contains(name)) {
+                return true;
             }
         }
+        return false;
     }
 
-    private void addToCache(RpcMethodInfo methodInfo) {
-        // 将关键词拆分为多个可能的搜索词，提高搜索灵敏度
-        methodCache.add(methodInfo);
-    }
-
-
     /**
      * 搜索对应方法
      *
@@ -213,37 +339,41 @@ public class RpcMethodCache {
      * @return
      */
     public List<RpcMethodInfo> search(String query) {
-        if (query == null || query.trim().isEmpty()) {
-            return Collections.emptyList();
-        }
-
-        query = query.toLowerCase();
-        // 构建用于匹配不连续字符的正则表达式
-        String regex = query.chars().mapToObj(c -> String.valueOf((char) c)).collect(Collectors.joining(".*?"));
-        Pattern pattern = Pattern.compile(regex);
+        return current.nameIndex().search(query, RpcMethodNameIndex.DEFAULT_LIMIT, frecency());
+    }
 
-        Set<RpcMethodInfo> results = new HashSet<>();
+    /**
+     * 当前项目的方法使用频率，用于搜索结果排序
+     */
+    private RpcMethodFrecency frecency() {
+        return RpcMethodHistoryManager.getInstance(project).frecencySnapshot();
+    }
 
-        // 搜索所有匹配正则表达式的缓存条目
-        for (RpcMethodInfo rpcMethodInfo : methodCache) {
-            String methodName = rpcMethodInfo.methodName().toLowerCase();
-            Matcher matcher = pattern.matcher(methodName);
-            if (matcher.find()) {
-                results.add(rpcMethodInfo);
-            }
-        }
+    /**
+     * 创建搜索会话，连续输入时复用上一次的匹配结果
+     *
+     * @return
+     */
+    public SearchSession newSearchSession() {
+        return new SearchSession();
+    }
 
-        // 按匹配度排序
-        String finalQuery = query;
-        return results.stream().sorted((m1, m2) -> {
-            int score1 = calculateScore(m1, finalQuery);
-            int score2 = calculateScore(m2, finalQuery);
-            return Integer.compare(score2, score1); // 降序排列
-        }).collect(Collectors.toList());
+    /**
+     * 获取按方法名排序的全部方法，缓存未变化时复用同一份结果
+     *
+     * @return
+     */
+    public RpcMethodNameIndex.SortedMethodList getSortedMethods() {
+        return current.nameIndex().getSortedMethods();
     }
 
-    public List<RpcMethodInfo> searchAll() {
-        return methodCache.stream().toList();
+    /**
+     * 获取当前缓存的方法数
+     *
+     * @return
+     */
+    public int getMethodCount() {
+        return current.size();
     }
 
     /**
@@ -255,110 +385,190 @@ public class RpcMethodCache {
         return projectIndexReady;
     }
 
-    private int calculateScore(RpcMethodInfo method, String query) {
-        int score = 0;
-        String methodName = method.methodName().toLowerCase();
-
-        // 计算编辑距离
-        int editDistance = levenshteinDistance(methodName, query);
-        int maxLength = Math.max(query.length(), methodName.length());
-        score += (maxLength - editDistance) * 2;
+    /**
+     * 判断是否可以搜索：项目索引已就绪，或已从磁盘恢复了上次的方法索引
+     *
+     * @return
+     */
+    public boolean isSearchReady() {
+        return projectIndexReady || restoredFromStorage;
+    }
 
-        // 匹配位置越靠前，得分越高
-        int index = methodName.indexOf(query);
-        if (index != -1) {
-            score += (methodName.length() - index) * 3;
+    /**
+     * 在可取消的非阻塞读操作中重新解析文件，读操作结束后再写入缓存
+     *
+     * 读操作被写操作打断时只会重新计算，缓存不会停留在“旧方法已移除、新方法未加入”的状态；不能在 EDT 或读操作中调用
+     */
+    public void updateFile(VirtualFile file, ProgressIndicator indicator) {
+        FileUpdate update = ReadAction.nonBlocking(() -> computeFileUpdate(file))
+                .inSmartMode(project)
+                .wrapProgress(indicator)
+                .expireWith(this)
+                .executeSynchronously();
+        if (update != null) {
+            applyFileUpdate(update);
         }
+    }
 
-        // 前缀匹配加分
-        if (methodName.startsWith(query)) {
-            score += 10;
+    /**
+     * 当文件变化时更新缓存，需要在读操作中调用
+     */
+    public void updateCacheForFile(PsiFile file) {
+        FileUpdate update = computeFileUpdate(file);
+        if (update != null) {
+            applyFileUpdate(update);
         }
+    }
 
-        // 完全匹配加分
-        if (methodName.equals(query)) {
-            score += 20;
+    private FileUpdate computeFileUpdate(VirtualFile file) {
+        if (!file.isValid()) {
+            return null;
         }
-
-        return score;
+        PsiFile psiFile = PsiManager.getInstance(project).findFile(file);
+        return psiFile == null ? null : computeFileUpdate(psiFile);
     }
 
     /**
-     * 计算两个字符串的 Levenshtein 距离
+     * 解析文件中的 SOA 方法，只收集结果不修改缓存，需要在读操作中调用
      *
-     * @param s1 第一个字符串
-     * @param s2 第二个字符串
-     * @return Levenshtein 距离
+     * @return 文件不是 Java 文件或解析失败时返回 null
      */
-    private int levenshteinDistance(String s1, String s2) {
-        int m = s1.length();
-        int n = s2.length();
-        int[][] dp = new int[m + 1][n + 1];
-
-        for (int i = 0; i <= m; i++) {
-            dp[i][0] = i;
+    private FileUpdate computeFileUpdate(PsiFile file) {
+        if (!(file instanceof PsiJavaFile javaFile)) {
+            return null;
         }
-        for (int j = 0; j <= n; j++) {
-            dp[0][j] = j;
-        }
-
-        for (int i = 1; i <= m; i++) {
-            for (int j = 1; j <= n; j++) {
-                int cost = s1.charAt(i - 1) == s2.charAt(j - 1) ? 0 : 1;
-                dp[i][j] = Math.min(Math.min(dp[i - 1][j] + 1, dp[i][j - 1] + 1), dp[i - 1][j - 1] + cost);
-            }
-        }
-        return dp[m][n];
-    }
-
-    // 当文件变化时更新缓存
-    public void updateCacheForFile(PsiFile file) {
         try {
-            if (file instanceof PsiJavaFile javaFile) {
-                String filePath = javaFile.getVirtualFile().getPath();
-                for (PsiClass psiClass : javaFile.getClasses()) {
-                    // 移除该类之前的所有方法
-                    removeMethodsFromClass(psiClass.getQualifiedName());
-
-                    // 如果是RPC实现类，重新添加其方法
-                    if (SoaMethodUtil.isImplementBaijiContractAnnotatedInterface(psiClass)) {
-                        processRpcClass(psiClass);
-                    } else {
-                        // 不再是 SOA 类，移除文件路径跟踪
-                        trackedFilePaths.remove(filePath);
-                    }
+            VirtualFile virtualFile = javaFile.getVirtualFile();
+            FileUpdate update = new FileUpdate(virtualFile.getPath(), virtualFile.getTimeStamp());
+            for (PsiClass psiClass : javaFile.getClasses()) {
+                // 类可能从其他文件移动过来，写入时移除该类之前的所有方法
+                if (psiClass.getQualifiedName() != null) {
+                    update.classNames.add(psiClass.getQualifiedName());
+                }
+
+                // 如果是RPC实现类，重新添加其方法
+                if (SoaMethodUtil.isImplementBaijiContractAnnotatedInterface(psiClass)) {
+                    update.soaFile = true;
+                    collectRpcMethods(update, psiClass);
                 }
             }
+            collectNewContractInterfaces(update, javaFile);
+            return update;
+        } catch (ProcessCanceledException e) {
+            // 读操作被写操作打断或任务被取消，交给调用方重试或放弃
+            throw e;
         } catch (IndexNotReadyException e) {
             // 索引未就绪时，不抛出异常，等待索引就绪后重试
             executeStartLoadIndexHook();
+            return null;
         } catch (Exception e) {
             // 捕获其他异常（如 Outdated stub），静默处理
             // 这些情况通常是暂时的，下次文件变更会重新触发
+            return null;
+        }
+    }
+
+    private static void collectRpcMethods(FileUpdate update, PsiClass psiClass) {
+        // 处理类中的所有方法
+        for (PsiMethod method : psiClass.getMethods()) {
+            // 使用宽松模式判断：有 Override 注解的方法默认为RPC方法
+            // 因为分支切换时新版本jar包可能没加载好，只判断严格模式会遗漏方法
+            if (SoaMethodUtil.isSoaMethodLoose(method)) {
+                update.methods.add(new RpcMethodInfo(method.getName(), psiClass.getQualifiedName(),
+                        update.filePath, method.getTextOffset()));
+            }
+        }
+    }
+
+    /**
+     * 文件中新增了 {@code @BaijiContract} 接口时，通过实现类索引收集该接口的所有实现类，需要在读操作中调用
+     */
+    private void collectNewContractInterfaces(FileUpdate update, PsiJavaFile javaFile) {
+        Set<String> knownNames = contractInterfaceNames;
+        if (knownNames == null) {
+            return;
+        }
+        for (PsiClass psiClass : javaFile.getClasses()) {
+            String name = psiClass.getName();
+            if (!psiClass.isInterface() || name == null || knownNames.contains(name)
+                    || !psiClass.hasAnnotation(SoaMethodUtil.BAIJI_CONTRACT_CLASS_NAME)) {
+                continue;
+            }
+            Set<String> methodNames = new HashSet<>();
+            for (PsiMethod method : psiClass.getMethods()) {
+                methodNames.add(method.getName());
+            }
+            update.newContractNames.add(name);
+            update.newContractImplementations.add(scanContract(name, methodNames));
         }
     }
 
-    private void removeMethodsFromClass(String className) {
-        if (className == null) {
+    /**
+     * 把读操作中计算出的结果写入当前缓存
+     */
+    private void applyFileUpdate(FileUpdate update) {
+        RpcMethodGeneration generation = current;
+        recordUpdateDuringScan(update.filePath);
+        // 移除该文件之前的所有方法（包括已被删除或改名的类）
+        generation.removeFile(update.filePath);
+        for (String className : update.classNames) {
+            generation.removeClass(className);
+        }
+        if (update.soaFile) {
+            // 记录该 SOA 类的文件路径及时间戳，用于后续增量监听和重启后的增量校验
+            generation.track(update.filePath, update.timeStamp);
+            for (RpcMethodInfo methodInfo : update.methods) {
+                generation.add(methodInfo);
+            }
+        } else {
+            // 不再是 SOA 类，移除文件路径跟踪
+            generation.untrack(update.filePath);
+        }
+
+        if (update.newContractNames.isEmpty()) {
             return;
         }
-        // 修复：实际移除缓存中指定类的方法
-        methodCache.removeIf(method -> className.equals(method.className()));
+        Set<String> knownNames = contractInterfaceNames;
+        if (knownNames != null) {
+            Set<String> updatedNames = new HashSet<>(knownNames);
+            updatedNames.addAll(update.newContractNames);
+            contractInterfaceNames = updatedNames;
+        }
+        for (ScanResult result : update.newContractImplementations) {
+            for (String filePath : result.fileStamps.keySet()) {
+                recordUpdateDuringScan(filePath);
+            }
+            applyScanResult(generation, result);
+        }
     }
 
     /**
      * 判断文件是否是已知的 SOA 类文件
      */
     public boolean isTrackedFile(String filePath) {
-        return trackedFilePaths.contains(filePath);
+        return current.isTracked(filePath);
     }
 
     /**
      * 移除已跟踪的文件及其缓存（用于文件删除场景）
      */
     public void removeTrackedFile(String filePath) {
-        trackedFilePaths.remove(filePath);
-        methodCache.removeIf(method -> filePath.equals(method.filePath()));
+        RpcMethodGeneration generation = current;
+        recordUpdateDuringScan(filePath);
+        generation.untrack(filePath);
+        generation.removeFile(filePath);
+    }
+
+    /**
+     * 移除目录下所有已跟踪的文件及其缓存（用于目录删除、移动场景）
+     */
+    public void removeTrackedFilesUnder(String directoryPath) {
+        String prefix = directoryPath.endsWith("/") ? directoryPath : directoryPath + "/";
+        for (String filePath : current.trackedFiles().keySet()) {
+            if (filePath.startsWith(prefix)) {
+                removeTrackedFile(filePath);
+            }
+        }
     }
 
     /**
@@ -371,7 +581,200 @@ public class RpcMethodCache {
             for (IndexLoadHook indexLoadHook : indexLoadHooks.values()) {
                 indexLoadHook.afterProjectIndexLoad();
             }
-            thisCache.asyncScanRpcMethods();
+            if (restoredFromStorage) {
+                // 已从磁盘恢复，只校验发生变化的文件
+                thisCache.asyncRevalidateRestoredFiles();
+            } else {
+                thisCache.asyncScanRpcMethods();
+            }
+        });
+    }
+
+    /**
+     * 从磁盘恢复上次保存的方法索引
+     */
+    private void restoreFromStorage() {
+        RpcMethodIndexStorage.StoredIndex storedIndex = storage.load();
+        if (storedIndex == null) {
+            return;
+        }
+        RpcMethodGeneration generation = new RpcMethodGeneration();
+        generation.trackAll(storedIndex.fileStamps());
+        for (RpcMethodInfo methodInfo : storedIndex.methods()) {
+            generation.add(methodInfo);
+        }
+        current = generation;
+        restoredFromStorage = true;
+        indexComplete = true;
+    }
+
+    /**
+     * 异步校验从磁盘恢复的索引：重新解析时间戳发生变化的文件，并通过实现类索引补充关闭期间新增的实现类
+     */
+    private void asyncRevalidateRestoredFiles() {
+        ProgressManager.getInstance().run(new Task.Backgroundable(project, "正在校验 SOA 接口索引...", true) {
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                revalidateRestoredFiles(indicator);
+            }
         });
     }
-}
\ No newline at end of file
+
+    private void revalidateRestoredFiles(ProgressIndicator indicator) {
+        // 触发soa服务加载前置钩子，与后置钩子在所有路径上成对执行
+        executeSoaMethodLoadBeforeHook();
+        try {
+            indicator.setIndeterminate(false);
+            // 磁盘上只保存了方法，契约接口名需要重新获取，供文件变更时过滤未跟踪的文件
+            Map<String, Set<String>> contracts = ApplicationManager.getApplication().runReadAction(
+                (com.intellij.openapi.util.Computable<Map<String, Set<String>>>) () ->
+                    SoaImplementationIndex.findContractInterfaces(project)
+            );
+            contractInterfaceNames = new HashSet<>(contracts.keySet());
+            List<Map.Entry<String, Long>> entries = new ArrayList<>(current.trackedFiles().entrySet());
+            int total = entries.size() + contracts.size();
+            for (int i = 0; i < entries.size(); i++) {
+                indicator.checkCanceled();
+                indicator.setFraction((double) i / total);
+                String filePath = entries.get(i).getKey();
+                VirtualFile file = LocalFileSystem.getInstance().findFileByPath(filePath);
+                if (file == null || !file.isValid()) {
+                    // 文件已被删除
+                    removeTrackedFile(filePath);
+                    continue;
+                }
+                if (file.getTimeStamp() == entries.get(i).getValue()) {
+                    continue;
+                }
+                indicator.setText2(file.getName());
+                updateFile(file, indicator);
+            }
+
+            // 关闭期间新增的实现类（git pull、切换分支等）不会产生文件事件，通过实现类索引查找未跟踪的文件
+            int processed = entries.size();
+            for (Map.Entry<String, Set<String>> contract : contracts.entrySet()) {
+                indicator.checkCanceled();
+                indicator.setFraction((double) processed++ / total);
+                indicator.setText2("发现 SOA 接口: " + contract.getKey());
+                ScanResult result = ReadAction
+                        .nonBlocking(() -> scanContract(contract.getKey(), contract.getValue()))
+                        .inSmartMode(project)
+                        .wrapProgress(indicator)
+                        .expireWith(this)
+                        .executeSynchronously();
+                applyUntrackedFiles(current, result);
+            }
+            saveToStorage();
+        } finally {
+            // 触发soa服务加载后置钩子
+            executeSoaMethodLoadAfterHook();
+        }
+    }
+
+    /**
+     * 只写入扫描结果中当前缓存尚未跟踪的文件，已跟踪的文件由时间戳校验及文件变更处理
+     */
+    private static void applyUntrackedFiles(RpcMethodGeneration generation, ScanResult result) {
+        Map<String, Long> untrackedFiles = new HashMap<>();
+        for (Map.Entry<String, Long> entry : result.fileStamps.entrySet()) {
+            if (!generation.isTracked(entry.getKey())) {
+                untrackedFiles.put(entry.getKey(), entry.getValue());
+            }
+        }
+        if (untrackedFiles.isEmpty()) {
+            return;
+        }
+        generation.trackAll(untrackedFiles);
+        for (RpcMethodInfo methodInfo : result.methods) {
+            if (untrackedFiles.containsKey(methodInfo.filePath())) {
+                generation.add(methodInfo);
+            }
+        }
+    }
+
+    /**
+     * 将当前方法索引保存到磁盘
+     */
+    private void saveToStorage() {
+        if (!indexComplete) {
+            return;
+        }
+        RpcMethodGeneration generation = current;
+        storage.save(generation.trackedFiles(), generation.methods());
+    }
+
+    @Override
+    public void dispose() {
+        // 项目关闭时保存索引，下次打开项目直接恢复
+        saveToStorage();
+    }
+
+    /**
+     * 搜索会话，连续输入时复用上一次的匹配结果；全量扫描发布新的一代后自动切换到新的索引
+     */
+    public class SearchSession {
+
+        private RpcMethodGeneration generation;
+        private RpcMethodNameIndex.SearchSession session;
+
+        public synchronized List<RpcMethodInfo> search(String query) {
+            RpcMethodGeneration latest = current;
+            if (latest != generation) {
+                generation = latest;
+                session = latest.nameIndex().newSearchSession();
+            }
+            return session.search(query, RpcMethodNameIndex.DEFAULT_LIMIT, frecency());
+        }
+    }
+
+    /**
+     * 一个文件的增量更新结果，在读操作中计算，读操作结束后再写入缓存
+     */
+    private static class FileUpdate {
+
+        private final String filePath;
+        private final long timeStamp;
+        /**
+         * 文件中的全部类，写入前移除这些类之前的方法
+         */
+        private final List<String> classNames = new ArrayList<>();
+        private final List<RpcMethodInfo> methods = new ArrayList<>();
+        private boolean soaFile;
+        /**
+         * 文件中新增的契约接口及其实现类
+         */
+        private final Set<String> newContractNames = new HashSet<>();
+        private final List<ScanResult> newContractImplementations = new ArrayList<>();
+
+        FileUpdate(String filePath, long timeStamp) {
+            this.filePath = filePath;
+            this.timeStamp = timeStamp;
+        }
+    }
+
+    /**
+     * 一个契约接口的扫描结果
+     */
+    private static class ScanResult {
+
+        private final Map<String, Long> fileStamps = new HashMap<>();
+        private final List<RpcMethodInfo> methods = new ArrayList<>();
+
+        /**
+         * 收集索引中记录的实现类方法，判断规则与 {@link SoaMethodUtil#isSoaMethodLoose} 一致：
+         * 有 Override 注解，或方法名在契约接口中声明
+         */
+        void collect(VirtualFile file, List<ImplementationInfo> implementations, Set<String> contractMethodNames) {
+            String filePath = file.getPath();
+            fileStamps.put(filePath, file.getTimeStamp());
+            for (ImplementationInfo implementation : implementations) {
+                for (SoaImplementationIndex.MethodInfo method : implementation.methods()) {
+                    if (method.override() || contractMethodNames.contains(method.methodName())) {
+                        methods.add(new RpcMethodInfo(method.methodName(), implementation.className(), filePath,
+                                method.textOffset()));
+                    }
+                }
+            }
+        }
+    }
+}
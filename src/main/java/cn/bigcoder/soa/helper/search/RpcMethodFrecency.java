@@ -0,0 +1,45 @@
+package cn.bigcoder.soa.helper.search;
+
+/**
+ * 方法使用频率快照（frecency：使用次数随时间指数衰减后的累计值）
+ *
+ * 由 {@link RpcMethodHistoryManager} 根据历史记录生成，创建后不再修改，可以在搜索线程中直接读取。
+ * 搜索时索引把快照中的方法解析为槽位，得分较高的方法在匹配度相近时排在前面。
+ */
+public final class RpcMethodFrecency {
+
+    public static final RpcMethodFrecency EMPTY = new RpcMethodFrecency(new String[0], new String[0], new double[0]);
+
+    private final String[] classNames;
+    private final String[] methodNames;
+    private final double[] scores;
+
+    RpcMethodFrecency(String[] classNames, String[] methodNames, double[] scores) {
+        this.classNames = classNames;
+        this.methodNames = methodNames;
+        this.scores = scores;
+    }
+
+    public int size() {
+        return scores.length;
+    }
+
+    public boolean isEmpty() {
+        return scores.length == 0;
+    }
+
+    String className(int index) {
+        return classNames[index];
+    }
+
+    String methodName(int index) {
+        return methodNames[index];
+    }
+
+    /**
+     * @return 衰减后的使用次数，最近使用一次约为 1
+     */
+    double score(int index) {
+        return scores[index];
+    }
+}
@@ -0,0 +1,77 @@
+package cn.bigcoder.soa.helper.search;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 一代方法缓存
+ *
+ * 包含按列存储的方法索引（同时按文件、按类分组）以及已跟踪的文件。全量扫描时构建新的一代，
+ * 构建期间只有扫描线程可见，完成后由 {@link RpcMethodCache} 一次性替换当前代；扫描期间搜索和增量更新继续使用旧的一代。
+ */
+final class RpcMethodGeneration {
+
+    /**
+     * 方法索引，用于搜索及按文件/类增量更新
+     */
+    private final RpcMethodNameIndex nameIndex = new RpcMethodNameIndex();
+    /**
+     * 已知 SOA 类文件路径 → 文件时间戳，用于增量监听过滤及重启后的增量校验
+     */
+    private final Map<String, Long> trackedFiles = new ConcurrentHashMap<>();
+
+    RpcMethodNameIndex nameIndex() {
+        return nameIndex;
+    }
+
+    void add(RpcMethodInfo methodInfo) {
+        nameIndex.add(methodInfo);
+    }
+
+    /**
+     * 移除文件中的所有方法，耗时只与该文件的方法数有关
+     */
+    void removeFile(String filePath) {
+        nameIndex.removeFile(filePath);
+    }
+
+    void removeClass(String className) {
+        nameIndex.removeClass(className);
+    }
+
+    void track(String filePath, long timeStamp) {
+        trackedFiles.put(filePath, timeStamp);
+    }
+
+    void trackAll(Map<String, Long> fileStamps) {
+        trackedFiles.putAll(fileStamps);
+    }
+
+    void untrack(String filePath) {
+        trackedFiles.remove(filePath);
+    }
+
+    boolean isTracked(String filePath) {
+        return trackedFiles.containsKey(filePath);
+    }
+
+    /**
+     * @return 已跟踪文件的副本
+     */
+    Map<String, Long> trackedFiles() {
+        return new HashMap<>(trackedFiles);
+    }
+
+    int size() {
+        return nameIndex.size();
+    }
+
+    /**
+     * @return 全部方法的副本
+     */
+    List<RpcMethodInfo> methods() {
+        return nameIndex.methods();
+    }
+}
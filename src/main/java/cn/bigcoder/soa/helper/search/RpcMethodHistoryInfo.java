@@ -12,6 +12,21 @@ public class RpcMethodHistoryInfo implements Serializable {
     private String methodName;
     @OptionTag
     private String className;
+    /**
+     * 累计选择次数
+     */
+    @OptionTag
+    private int hitCount;
+    /**
+     * 最近一次选择的时间（毫秒）
+     */
+    @OptionTag
+    private long lastUsedTime;
+    /**
+     * 截至 lastUsedTime 的衰减使用次数，每次选择时先按时间衰减再加 1
+     */
+    @OptionTag
+    private double frecency;
 
     public RpcMethodHistoryInfo(String methodName, String className) {
         this.methodName = methodName;
@@ -37,6 +52,30 @@ public class RpcMethodHistoryInfo implements Serializable {
         this.className = className;
     }
 
+    public int getHitCount() {
+        return hitCount;
+    }
+
+    public void setHitCount(int hitCount) {
+        this.hitCount = hitCount;
+    }
+
+    public long getLastUsedTime() {
+        return lastUsedTime;
+    }
+
+    public void setLastUsedTime(long lastUsedTime) {
+        this.lastUsedTime = lastUsedTime;
+    }
+
+    public double getFrecency() {
+        return frecency;
+    }
+
+    public void setFrecency(double frecency) {
+        this.frecency = frecency;
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (this == obj) {
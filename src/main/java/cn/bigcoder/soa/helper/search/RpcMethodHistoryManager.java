@@ -7,10 +7,18 @@ import com.intellij.openapi.project.Project;
 import com.intellij.util.xmlb.XmlSerializerUtil;
 import com.intellij.util.xmlb.annotations.XCollection;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+/**
+ * 方法选择历史
+ *
+ * 历史记录按最近选择的顺序排列，用于搜索词为空时置顶展示；每条记录同时保存选择次数、最近选择时间及按时间指数衰减的使用次数
+ * （frecency），搜索非空时作为排序加权。
+ */
 @State(
         name = "RpcMethodHistory",
         storages = @Storage("RpcMethodHistory.xml")
@@ -22,6 +30,24 @@ public class RpcMethodHistoryManager implements PersistentStateComponent<RpcMeth
     private final List<RpcMethodHistoryInfo> histories = new ArrayList<>();
 
     private static final int MAX_HISTORY_SIZE = 100;
+    /**
+     * 使用次数的半衰期：一周前的一次选择只相当于现在的半次
+     */
+    private static final long HALF_LIFE_MILLIS = 7L * 24 * 60 * 60 * 1000;
+    /**
+     * 快照的有效期，超过后按当前时间重新计算衰减
+     */
+    private static final long SNAPSHOT_TTL_MILLIS = 60L * 60 * 1000;
+
+    /**
+     * 类名#方法名 → 历史记录，用于选择时 O(1) 查找已有记录
+     */
+    private final Map<String, RpcMethodHistoryInfo> historiesByKey = new HashMap<>();
+    /**
+     * 供搜索线程读取的使用频率快照，历史变化后置空，下次读取时重新生成
+     */
+    private volatile RpcMethodFrecency frecency;
+    private volatile long frecencyTime;
 
 
     public static RpcMethodHistoryManager getInstance(Project project) {
@@ -33,15 +59,90 @@ public class RpcMethodHistoryManager implements PersistentStateComponent<RpcMeth
         return histories;
     }
 
-    public void addToHistory(RpcMethodHistoryInfo entry) {
-        // 若历史记录中存在该条目，则先移除
-        histories.remove(entry);
+    public synchronized void addToHistory(RpcMethodHistoryInfo entry) {
+        long now = System.currentTimeMillis();
+        // 若历史记录中存在该条目，则在原记录上累计次数，并先从列表中移除
+        RpcMethodHistoryInfo existing = historiesByKey.get(key(entry));
+        if (existing != null) {
+            histories.remove(existing);
+            entry = existing;
+        }
+        entry.setFrecency(decayedFrecency(entry, now) + 1);
+        entry.setHitCount(entry.getHitCount() + 1);
+        entry.setLastUsedTime(now);
         // 将条目添加到历史记录的最前面
         histories.add(0, entry);
-        // 限制历史记录数量为 10 条
+        historiesByKey.put(key(entry), entry);
+        // 限制历史记录数量，超出时淘汰衰减后使用次数最少的记录（不包括刚选择的记录）
         while (histories.size() > MAX_HISTORY_SIZE) {
-            histories.remove(histories.size() - 1);
+            RpcMethodHistoryInfo evicted = leastFrequent(now);
+            histories.remove(evicted);
+            historiesByKey.remove(key(evicted));
+        }
+        frecency = null;
+    }
+
+    /**
+     * 获取使用频率快照，历史未变化且快照未过期时直接复用
+     *
+     * @return
+     */
+    public RpcMethodFrecency frecencySnapshot() {
+        RpcMethodFrecency snapshot = frecency;
+        long now = System.currentTimeMillis();
+        if (snapshot == null || now - frecencyTime > SNAPSHOT_TTL_MILLIS) {
+            snapshot = buildFrecency(now);
+        }
+        return snapshot;
+    }
+
+    /**
+     * 在锁内生成并发布快照，避免覆盖历史变化后的失效标记
+     */
+    private synchronized RpcMethodFrecency buildFrecency(long now) {
+        List<RpcMethodHistoryInfo> entries = new ArrayList<>(histories);
+        String[] classNames = new String[entries.size()];
+        String[] methodNames = new String[entries.size()];
+        double[] scores = new double[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            RpcMethodHistoryInfo entry = entries.get(i);
+            classNames[i] = entry.getClassName();
+            methodNames[i] = entry.getMethodName();
+            scores[i] = decayedFrecency(entry, now);
         }
+        RpcMethodFrecency snapshot = new RpcMethodFrecency(classNames, methodNames, scores);
+        frecencyTime = now;
+        frecency = snapshot;
+        return snapshot;
+    }
+
+    /**
+     * 查找衰减后使用次数最少的记录，跳过位于最前面的刚选择的记录：新记录只有 1 次，
+     * 其余记录衰减后仍可能都多于 1 次，不跳过时刚选择的方法会立即被淘汰
+     */
+    private RpcMethodHistoryInfo leastFrequent(long now) {
+        RpcMethodHistoryInfo least = histories.get(histories.size() - 1);
+        double leastScore = decayedFrecency(least, now);
+        for (RpcMethodHistoryInfo entry : histories.subList(1, histories.size())) {
+            double score = decayedFrecency(entry, now);
+            if (score < leastScore) {
+                least = entry;
+                leastScore = score;
+            }
+        }
+        return least;
+    }
+
+    /**
+     * 按距上次选择的时间指数衰减后的使用次数
+     */
+    private static double decayedFrecency(RpcMethodHistoryInfo entry, long now) {
+        long age = Math.max(0, now - entry.getLastUsedTime());
+        return entry.getFrecency() * Math.pow(0.5, (double) age / HALF_LIFE_MILLIS);
+    }
+
+    private static String key(RpcMethodHistoryInfo entry) {
+        return entry.getClassName() + "#" + entry.getMethodName();
     }
 
     @Nullable
@@ -51,7 +152,20 @@ public class RpcMethodHistoryManager implements PersistentStateComponent<RpcMeth
     }
 
     @Override
-    public void loadState(@NotNull RpcMethodHistoryManager state) {
+    public synchronized void loadState(@NotNull RpcMethodHistoryManager state) {
         XmlSerializerUtil.copyBean(state, this);
+        historiesByKey.clear();
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < histories.size(); i++) {
+            RpcMethodHistoryInfo entry = histories.get(i);
+            if (entry.getHitCount() <= 0) {
+                // 旧版本只保存了顺序，按一次选择处理，越靠前的记录越新
+                entry.setHitCount(1);
+                entry.setFrecency(1);
+                entry.setLastUsedTime(now - i * 60_000L);
+            }
+            historiesByKey.put(key(entry), entry);
+        }
+        frecency = null;
     }
 }
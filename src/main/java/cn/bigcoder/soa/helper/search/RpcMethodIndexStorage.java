@@ -0,0 +1,175 @@
+package cn.bigcoder.soa.helper.search;
+
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.intellij.util.io.DataInputOutputUtil;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * SOA 方法索引的磁盘持久化
+ *
+ * 每个项目对应一个二进制文件（位于 IDE system 目录下），按文件路径 + 文件时间戳记录该文件中的 SOA 方法。
+ * IDE 重启后先加载该文件提供搜索，再只对时间戳发生变化的文件做增量校验，避免全量扫描。
+ *
+ * 文件格式：
+ * <pre>
+ * int    MAGIC
+ * int    VERSION
+ * varint 文件数
+ *   UTF    文件路径
+ *   long   文件时间戳
+ *   varint 类名数
+ *     UTF    类全限定名
+ *   varint 方法数
+ *     UTF    方法名
+ *     varint 类名下标
+ *     varint 方法偏移量
+ * </pre>
+ */
+public class RpcMethodIndexStorage {
+
+    private static final Logger LOG = Logger.getInstance(RpcMethodIndexStorage.class);
+
+    private static final int MAGIC = 0x534F4148;
+    /**
+     * 格式变化时递增，旧版本文件直接丢弃并重新全量扫描
+     */
+    private static final int VERSION = 1;
+
+    private final Path storageFile;
+
+    public RpcMethodIndexStorage(Project project) {
+        this.storageFile = Path.of(PathManager.getSystemPath(), "soa-helper",
+                project.getName() + "." + project.getLocationHash() + ".idx");
+    }
+
+    /**
+     * 读取持久化的方法索引
+     *
+     * @return 读取到的索引，文件不存在、版本不匹配或已损坏时返回 null
+     */
+    @Nullable
+    public StoredIndex load() {
+        if (!Files.isRegularFile(storageFile)) {
+            return null;
+        }
+        try (InputStream in = Files.newInputStream(storageFile);
+                DataInputStream input = new DataInputStream(new BufferedInputStream(in))) {
+            if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+                LOG.info("SOA method index version mismatch, ignore: " + storageFile);
+                return null;
+            }
+            int fileCount = DataInputOutputUtil.readINT(input);
+            Map<String, Long> fileStamps = new HashMap<>(fileCount * 2);
+            List<RpcMethodInfo> methods = new ArrayList<>();
+            for (int i = 0; i < fileCount; i++) {
+                String filePath = input.readUTF();
+                fileStamps.put(filePath, input.readLong());
+
+                int classCount = DataInputOutputUtil.readINT(input);
+                String[] classNames = new String[classCount];
+                for (int j = 0; j < classCount; j++) {
+                    String className = input.readUTF();
+                    classNames[j] = className.isEmpty() ? null : className;
+                }
+
+                int methodCount = DataInputOutputUtil.readINT(input);
+                for (int j = 0; j < methodCount; j++) {
+                    String methodName = input.readUTF();
+                    String className = classNames[DataInputOutputUtil.readINT(input)];
+                    int textOffset = DataInputOutputUtil.readINT(input);
+                    methods.add(new RpcMethodInfo(methodName, className, filePath, textOffset));
+                }
+            }
+            return new StoredIndex(fileStamps, methods);
+        } catch (IOException | RuntimeException e) {
+            // 文件损坏时不影响插件使用，退化为全量扫描
+            LOG.warn("Failed to load SOA method index: " + storageFile, e);
+            return null;
+        }
+    }
+
+    /**
+     * 保存方法索引，先写临时文件再原子替换，避免写入中途退出导致文件损坏
+     *
+     * @param fileStamps 已跟踪的文件路径 → 文件时间戳
+     * @param methods 当前缓存中的所有方法
+     */
+    public void save(@NotNull Map<String, Long> fileStamps, @NotNull Collection<RpcMethodInfo> methods) {
+        Map<String, List<RpcMethodInfo>> methodsByFile = new LinkedHashMap<>();
+        for (String filePath : fileStamps.keySet()) {
+            methodsByFile.put(filePath, new ArrayList<>());
+        }
+        for (RpcMethodInfo method : methods) {
+            List<RpcMethodInfo> fileMethods = methodsByFile.get(method.filePath());
+            if (fileMethods != null) {
+                fileMethods.add(method);
+            }
+        }
+
+        try {
+            Files.createDirectories(storageFile.getParent());
+            Path tempFile = storageFile.resolveSibling(storageFile.getFileName() + ".tmp");
+            try (OutputStream out = Files.newOutputStream(tempFile);
+                    DataOutputStream output = new DataOutputStream(new BufferedOutputStream(out))) {
+                output.writeInt(MAGIC);
+                output.writeInt(VERSION);
+                DataInputOutputUtil.writeINT(output, methodsByFile.size());
+                for (Map.Entry<String, List<RpcMethodInfo>> entry : methodsByFile.entrySet()) {
+                    output.writeUTF(entry.getKey());
+                    output.writeLong(fileStamps.getOrDefault(entry.getKey(), 0L));
+                    writeFileMethods(output, entry.getValue());
+                }
+            }
+            Files.move(tempFile, storageFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOG.warn("Failed to save SOA method index: " + storageFile, e);
+        }
+    }
+
+    private static void writeFileMethods(DataOutputStream output, List<RpcMethodInfo> methods) throws IOException {
+        // 同一文件内的类名只写一次，方法通过下标引用
+        Map<String, Integer> classIndexes = new LinkedHashMap<>();
+        for (RpcMethodInfo method : methods) {
+            classIndexes.putIfAbsent(method.className(), classIndexes.size());
+        }
+        DataInputOutputUtil.writeINT(output, classIndexes.size());
+        for (String className : classIndexes.keySet()) {
+            // 匿名类/局部类没有全限定名，以空串占位
+            output.writeUTF(className == null ? "" : className);
+        }
+
+        DataInputOutputUtil.writeINT(output, methods.size());
+        for (RpcMethodInfo method : methods) {
+            output.writeUTF(method.methodName());
+            DataInputOutputUtil.writeINT(output, classIndexes.get(method.className()));
+            DataInputOutputUtil.writeINT(output, method.textOffset());
+        }
+    }
+
+    /**
+     * @param fileStamps 文件路径 → 保存时的文件时间戳
+     * @param methods 保存时的方法列表
+     */
+    public record StoredIndex(Map<String, Long> fileStamps, List<RpcMethodInfo> methods) {
+
+    }
+}
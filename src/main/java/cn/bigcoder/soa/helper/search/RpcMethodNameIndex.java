@@ -0,0 +1,1055 @@
+package cn.bigcoder.soa.helper.search;
+
+import com.intellij.openapi.progress.ProgressManager;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+
+/**
+ * 方法名字符倒排索引
+ *
+ * 每个缓存的方法占用一个槽位，索引为每个字符维护一个槽位位图（a-z、0-9 各一个，其余字符共用一个）。
+ * 搜索时先把查询词中每个字符对应的位图按位与，得到同时包含这些字符的候选集合，再只对候选做子序列匹配，
+ * 避免对全部方法逐个匹配。方法名的小写形式在加入索引时计算一次，搜索时不再重复转换。
+ *
+ * 注意：搜索是不连续的子序列匹配（如 guo 匹配 getUserOrder），连续的 bigram/trigram 无法作为过滤条件，
+ * 因此这里以单字符为倒排单位。
+ *
+ * 候选通过子序列过滤后由 {@link CamelCaseMatcher} 打分，单词开头、连续匹配、前缀匹配的方法排在前面。
+ *
+ * 带类名条件的搜索（见 {@link RpcMethodQuery}）另外使用一份以类名 id 为单位的字符位图：先匹配类名，
+ * 匹配到的类较少时只遍历这些类的方法，否则按方法名位图过滤后再检查类名，同名方法很多（如 checkHealth）时也不必逐个比较类名。
+ *
+ * 搜索时可传入使用频率快照（{@link RpcMethodFrecency}），快照中的方法在搜索开始时解析为槽位 → 加分的哈希表，
+ * 打分时按槽位 O(1) 查找加分，常用的方法在匹配度相近时排在前面。
+ *
+ * 方法按列存储：方法名、类名、文件路径分别放入符号表，槽位上只记录符号 id 和方法偏移量，
+ * 同名方法共享同一个小写字符数组。搜索全程只访问基本类型数组，{@link RpcMethodInfo} 只在返回结果时按需创建。
+ * 索引同时按文件、按类记录槽位，文件变更时只处理该文件的槽位。
+ *
+ * 内存占用：每个方法在各列及字符位图中约占 30 字节；每个不同的方法名、类名、文件路径另有字符串本身、
+ * 符号表中约 20 字节的哈希表项，以及小写字符数组或按文件、按类的槽位列表（约 50 字节）。
+ * 实现类多而方法少时，按符号计的开销与按方法计的开销相当。
+ *
+ * 符号表在增删方法时只追加，文件或类被删除后其符号不会立即回收；索引记录仍被引用的符号数，
+ * 不再引用的符号超过仍被引用的符号数时整体重建（见 {@link #compactIfNeeded()}），重建的均摊开销与删除的方法数成正比。
+ */
+public class RpcMethodNameIndex {
+
+    /**
+     * a-z 占 0-25，0-9 占 26-35，其余字符共用 36
+     */
+    private static final int BUCKET_COUNT = 37;
+    private static final int OTHER_BUCKET = 36;
+    private static final int INITIAL_CAPACITY = 1024;
+    /**
+     * 空槽位或没有类名（匿名类/局部类）
+     */
+    private static final int NO_ID = -1;
+    /**
+     * 默认最多返回的搜索结果数，搜索框只需要展示前几百条
+     */
+    public static final int DEFAULT_LIMIT = 500;
+    /**
+     * 每处理多少个位图字（或候选）检查一次是否取消
+     */
+    private static final int CANCEL_CHECK_MASK = 0xFF;
+    /**
+     * 带类名条件搜索时方法名、类名得分的权重
+     */
+    private static final int METHOD_WEIGHT = 2;
+    private static final int CLASS_WEIGHT = 1;
+    /**
+     * 匹配类中的方法数不超过总数的 1/8 时，只遍历这些类的方法
+     */
+    private static final int CLASS_FIRST_RATIO = 8;
+    /**
+     * 使用频率加分：每翻倍一次相当于多匹配到一个单词开头，最多加 {@link #MAX_FRECENCY_BOOST}
+     */
+    private static final double FRECENCY_WEIGHT = 8 * 64;
+    private static final int MAX_FRECENCY_BOOST = 32 * 64;
+    /**
+     * 不再引用的符号少于该数量时不重建，避免小索引频繁重建
+     */
+    private static final int MIN_COMPACT_SYMBOLS = 4096;
+
+    private SymbolTable names = new SymbolTable();
+    private SymbolTable classNames = new SymbolTable();
+    private SymbolTable filePaths = new SymbolTable();
+    /**
+     * 方法名 id → 小写方法名
+     */
+    private char[][] lowerNameTable = new char[INITIAL_CAPACITY][];
+    /**
+     * 方法名 id → 使用该方法名的槽位数，类名、文件路径是否仍被引用由 slotsByClass、slotsByFile 判断
+     */
+    private int[] nameRefCounts = new int[INITIAL_CAPACITY];
+    /**
+     * 三个符号表中仍被槽位引用的符号总数
+     */
+    private int liveSymbols;
+
+    /**
+     * 槽位 → 方法名 id，空槽位为 {@link #NO_ID}
+     */
+    private int[] nameIds = new int[INITIAL_CAPACITY];
+    private int[] classIds = new int[INITIAL_CAPACITY];
+    private int[] fileIds = new int[INITIAL_CAPACITY];
+    private int[] offsets = new int[INITIAL_CAPACITY];
+    /**
+     * 槽位 → 小写方法名，与 lowerNameTable 共享数组，搜索时少一次间接访问
+     */
+    private char[][] lowerNames = new char[INITIAL_CAPACITY][];
+    /**
+     * 字符 → 包含该字符的槽位位图
+     */
+    private long[][] postings = new long[BUCKET_COUNT][INITIAL_CAPACITY >>> 6];
+    /**
+     * 类名 id → 小写全限定名
+     */
+    private char[][] lowerClassNames = new char[64][];
+    /**
+     * 类名 id → 简单名
+     */
+    private String[] simpleClassNames = new String[64];
+    /**
+     * 字符 → 全限定名包含该字符的类名 id 位图
+     */
+    private long[][] classPostings = new long[BUCKET_COUNT][1];
+    /**
+     * 已建立类名位图的类名数，类名 id 连续分配，按 id 顺序追加
+     */
+    private int indexedClassCount;
+    /**
+     * 文件路径 id → 文件中方法的槽位
+     */
+    private SlotList[] slotsByFile = new SlotList[64];
+    /**
+     * 类名 id → 类中方法的槽位
+     */
+    private SlotList[] slotsByClass = new SlotList[64];
+    /**
+     * 已释放可复用的槽位
+     */
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+    /**
+     * 已分配过的最大槽位（不含）
+     */
+    private int slotLimit;
+    private int size;
+    /**
+     * 索引修改次数，搜索会话据此判断上一次的匹配结果是否仍然有效
+     */
+    private long modCount;
+    /**
+     * 按名称排序的全部方法，索引修改后在下次访问时重建
+     */
+    private SortedMethodList sortedMethods;
+    private long sortedMethodsModCount = -1;
+
+    /**
+     * 添加方法到索引，同一文件中相同的方法只保留一个
+     */
+    public synchronized void add(RpcMethodInfo method) {
+        if (method.methodName() == null || method.filePath() == null) {
+            return;
+        }
+        int nameId = internName(method.methodName());
+        int classId = method.className() == null ? NO_ID : internClassName(method.className());
+        int fileId = filePaths.intern(method.filePath());
+        SlotList fileSlots = slotsByFile.length > fileId ? slotsByFile[fileId] : null;
+        if (fileSlots != null) {
+            for (int i = 0; i < fileSlots.size; i++) {
+                int slot = fileSlots.slots[i];
+                if (nameIds[slot] == nameId && classIds[slot] == classId && offsets[slot] == method.textOffset()) {
+                    return;
+                }
+            }
+        }
+
+        int slot = freeCount > 0 ? freeSlots[--freeCount] : slotLimit++;
+        ensureCapacity(slot + 1);
+        char[] lowerName = lowerNameTable[nameId];
+        nameIds[slot] = nameId;
+        classIds[slot] = classId;
+        fileIds[slot] = fileId;
+        offsets[slot] = method.textOffset();
+        lowerNames[slot] = lowerName;
+        for (char c : lowerName) {
+            postings[bucket(c)][slot >>> 6] |= 1L << slot;
+        }
+        if (nameRefCounts[nameId]++ == 0) {
+            liveSymbols++;
+        }
+        if (!hasGroup(slotsByFile, fileId)) {
+            liveSymbols++;
+        }
+        slotsByFile = addToGroup(slotsByFile, fileId, slot);
+        if (classId != NO_ID) {
+            if (!hasGroup(slotsByClass, classId)) {
+                liveSymbols++;
+            }
+            slotsByClass = addToGroup(slotsByClass, classId, slot);
+        }
+        size++;
+        modCount++;
+    }
+
+    /**
+     * 移除文件中的所有方法，耗时只与该文件的方法数有关
+     */
+    public synchronized void removeFile(String filePath) {
+        int fileId = filePaths.find(filePath);
+        if (fileId == NO_ID || fileId >= slotsByFile.length || slotsByFile[fileId] == null) {
+            return;
+        }
+        SlotList fileSlots = slotsByFile[fileId];
+        slotsByFile[fileId] = null;
+        liveSymbols--;
+        for (int i = 0; i < fileSlots.size; i++) {
+            int slot = fileSlots.slots[i];
+            if (classIds[slot] != NO_ID) {
+                removeFromGroup(slotsByClass, classIds[slot], slot);
+            }
+            freeSlot(slot);
+        }
+        compactIfNeeded();
+    }
+
+    /**
+     * 移除类中的所有方法，耗时只与该类的方法数有关
+     */
+    public synchronized void removeClass(String className) {
+        int classId = classNames.find(className);
+        if (classId == NO_ID || classId >= slotsByClass.length || slotsByClass[classId] == null) {
+            return;
+        }
+        SlotList classSlots = slotsByClass[classId];
+        slotsByClass[classId] = null;
+        liveSymbols--;
+        for (int i = 0; i < classSlots.size; i++) {
+            int slot = classSlots.slots[i];
+            removeFromGroup(slotsByFile, fileIds[slot], slot);
+            freeSlot(slot);
+        }
+        compactIfNeeded();
+    }
+
+    private void freeSlot(int slot) {
+        for (char c : lowerNames[slot]) {
+            postings[bucket(c)][slot >>> 6] &= ~(1L << slot);
+        }
+        if (--nameRefCounts[nameIds[slot]] == 0) {
+            liveSymbols--;
+        }
+        nameIds[slot] = NO_ID;
+        lowerNames[slot] = null;
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+        size--;
+        modCount++;
+    }
+
+    /**
+     * 不再引用的符号超过仍被引用的符号时，用仍在索引中的方法重建索引，回收符号表、小写名称、类名位图等按符号分配的空间
+     *
+     * 重建后槽位重新连续分配，已有的搜索会话按修改次数失效；已创建的 {@link SortedMethodList} 引用的是旧的值数组，不受影响。
+     */
+    private void compactIfNeeded() {
+        int deadSymbols = names.size() + classNames.size() + filePaths.size() - liveSymbols;
+        if (deadSymbols < MIN_COMPACT_SYMBOLS || deadSymbols <= liveSymbols) {
+            return;
+        }
+        List<RpcMethodInfo> liveMethods = methods();
+        names = new SymbolTable();
+        classNames = new SymbolTable();
+        filePaths = new SymbolTable();
+        lowerNameTable = new char[INITIAL_CAPACITY][];
+        nameRefCounts = new int[INITIAL_CAPACITY];
+        liveSymbols = 0;
+        nameIds = new int[INITIAL_CAPACITY];
+        classIds = new int[INITIAL_CAPACITY];
+        fileIds = new int[INITIAL_CAPACITY];
+        offsets = new int[INITIAL_CAPACITY];
+        lowerNames = new char[INITIAL_CAPACITY][];
+        postings = new long[BUCKET_COUNT][INITIAL_CAPACITY >>> 6];
+        lowerClassNames = new char[64][];
+        simpleClassNames = new String[64];
+        classPostings = new long[BUCKET_COUNT][1];
+        indexedClassCount = 0;
+        slotsByFile = new SlotList[64];
+        slotsByClass = new SlotList[64];
+        freeSlots = new int[16];
+        freeCount = 0;
+        slotLimit = 0;
+        size = 0;
+        for (RpcMethodInfo method : liveMethods) {
+            add(method);
+        }
+        modCount++;
+    }
+
+    private int internName(String name) {
+        int nameId = names.intern(name);
+        if (nameId >= lowerNameTable.length) {
+            int newCapacity = Math.max(nameId + 1, lowerNameTable.length * 2);
+            lowerNameTable = Arrays.copyOf(lowerNameTable, newCapacity);
+            nameRefCounts = Arrays.copyOf(nameRefCounts, newCapacity);
+        }
+        if (lowerNameTable[nameId] == null) {
+            lowerNameTable[nameId] = name.toLowerCase().toCharArray();
+        }
+        return nameId;
+    }
+
+    private int internClassName(String className) {
+        int classId = classNames.intern(className);
+        while (indexedClassCount <= classId) {
+            indexClassName(indexedClassCount++);
+        }
+        return classId;
+    }
+
+    private void indexClassName(int classId) {
+        if (classId >= lowerClassNames.length) {
+            int newCapacity = Math.max(classId + 1, lowerClassNames.length * 2);
+            lowerClassNames = Arrays.copyOf(lowerClassNames, newCapacity);
+            simpleClassNames = Arrays.copyOf(simpleClassNames, newCapacity);
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                classPostings[i] = Arrays.copyOf(classPostings[i], (newCapacity + 63) >>> 6);
+            }
+        }
+        String className = classNames.get(classId);
+        char[] lowerClassName = className.toLowerCase().toCharArray();
+        lowerClassNames[classId] = lowerClassName;
+        simpleClassNames[classId] = className.substring(className.lastIndexOf('.') + 1);
+        for (char c : lowerClassName) {
+            classPostings[bucket(c)][classId >>> 6] |= 1L << classId;
+        }
+    }
+
+    private static boolean hasGroup(SlotList[] groups, int id) {
+        return id < groups.length && groups[id] != null;
+    }
+
+    private static SlotList[] addToGroup(SlotList[] groups, int id, int slot) {
+        if (id >= groups.length) {
+            groups = Arrays.copyOf(groups, Math.max(id + 1, groups.length * 2));
+        }
+        if (groups[id] == null) {
+            groups[id] = new SlotList();
+        }
+        groups[id].add(slot);
+        return groups;
+    }
+
+    private void removeFromGroup(SlotList[] groups, int id, int slot) {
+        SlotList group = groups[id];
+        if (group != null && group.remove(slot) && group.size == 0) {
+            groups[id] = null;
+            liveSymbols--;
+        }
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * 创建槽位上的方法对象
+     */
+    private RpcMethodInfo methodAt(int slot) {
+        String className = classIds[slot] == NO_ID ? null : classNames.get(classIds[slot]);
+        return new RpcMethodInfo(names.get(nameIds[slot]), className, filePaths.get(fileIds[slot]), offsets[slot]);
+    }
+
+    /**
+     * 获取全部方法（用于持久化），每次调用都会创建新的方法对象
+     */
+    public synchronized List<RpcMethodInfo> methods() {
+        List<RpcMethodInfo> result = new ArrayList<>(size);
+        for (int slot = 0; slot < slotLimit; slot++) {
+            if (nameIds[slot] != NO_ID) {
+                result.add(methodAt(slot));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 搜索方法，按匹配度降序返回前 {@link #DEFAULT_LIMIT} 个，搜索词语法见 {@link RpcMethodQuery}
+     *
+     * @param query 搜索词
+     * @return 匹配的方法
+     */
+    public List<RpcMethodInfo> search(String query) {
+        return search(query, DEFAULT_LIMIT);
+    }
+
+    /**
+     * 搜索方法，按匹配度降序返回前 limit 个，搜索词语法见 {@link RpcMethodQuery}
+     *
+     * 每个候选只计算一次得分，用大小为 limit 的小顶堆保留得分最高的结果，
+     * 单次搜索的内存分配只与 limit 有关，与匹配数量无关。
+     *
+     * @param query 搜索词
+     * @param limit 最多返回的结果数
+     * @return 匹配的方法
+     */
+    public List<RpcMethodInfo> search(String query, int limit) {
+        return search(query, limit, RpcMethodFrecency.EMPTY);
+    }
+
+    /**
+     * 搜索方法，匹配度相近时使用频率高的方法排在前面
+     *
+     * @param query 搜索词
+     * @param limit 最多返回的结果数
+     * @param frecency 使用频率快照
+     * @return 匹配的方法
+     */
+    public List<RpcMethodInfo> search(String query, int limit, RpcMethodFrecency frecency) {
+        if (query == null || query.trim().isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        return search(RpcMethodQuery.parse(query), limit, frecency);
+    }
+
+    private synchronized List<RpcMethodInfo> search(RpcMethodQuery query, int limit, RpcMethodFrecency frecency) {
+        Int2IntOpenHashMap boosts = resolveBoosts(frecency);
+        if (query.isQualified()) {
+            return searchQualified(query, limit, boosts);
+        }
+        if (query.methodPart().isEmpty()) {
+            return Collections.emptyList();
+        }
+        char[] queryChars = query.methodPart().toLowerCase().toCharArray();
+        CamelCaseMatcher matcher = new CamelCaseMatcher(queryChars);
+        TopKCollector collector = new TopKCollector(limit);
+        forEachMatch(queryChars, slot -> offer(collector, matcher, boosts, slot));
+        return collector.toList(this::methodAt);
+    }
+
+    /**
+     * 把使用频率快照中的方法解析为槽位 → 加分，同一个方法的重载共享加分
+     */
+    private Int2IntOpenHashMap resolveBoosts(RpcMethodFrecency frecency) {
+        Int2IntOpenHashMap boosts = new Int2IntOpenHashMap(frecency.size() * 2);
+        for (int i = 0; i < frecency.size(); i++) {
+            int boost = (int) Math.min(MAX_FRECENCY_BOOST, Math.round(FRECENCY_WEIGHT * Math.log1p(frecency.score(i))
+                    / Math.log(2)));
+            int classId = frecency.className(i) == null ? NO_ID : classNames.find(frecency.className(i));
+            int nameId = names.find(frecency.methodName(i));
+            if (boost <= 0 || classId == NO_ID || nameId == NO_ID || classId >= slotsByClass.length
+                    || slotsByClass[classId] == null) {
+                continue;
+            }
+            SlotList classSlots = slotsByClass[classId];
+            for (int j = 0; j < classSlots.size; j++) {
+                int slot = classSlots.slots[j];
+                if (nameIds[slot] == nameId) {
+                    boosts.put(slot, boost);
+                }
+            }
+        }
+        return boosts;
+    }
+
+    /**
+     * 获取按方法名、类名排序的全部方法，索引未修改时直接复用上一次的结果
+     */
+    public synchronized SortedMethodList getSortedMethods() {
+        if (sortedMethods == null || sortedMethodsModCount != modCount) {
+            sortedMethods = buildSortedMethods();
+            sortedMethodsModCount = modCount;
+        }
+        return sortedMethods;
+    }
+
+    /**
+     * 创建搜索会话，同一个搜索框的连续输入应复用同一个会话
+     */
+    public SearchSession newSearchSession() {
+        return new SearchSession();
+    }
+
+    /**
+     * 在会话中搜索：新搜索词是上一次搜索词的扩展（上一次的搜索词是新搜索词的子序列）且索引未修改时，
+     * 新的匹配结果一定是上一次匹配结果的子集，只需在上一次的匹配结果中过滤；否则（如删除字符）全量搜索。
+     */
+    private synchronized List<RpcMethodInfo> search(SearchSession session, char[] queryChars, int limit,
+            RpcMethodFrecency frecency) {
+        Int2IntOpenHashMap boosts = resolveBoosts(frecency);
+        CamelCaseMatcher matcher = new CamelCaseMatcher(queryChars);
+        TopKCollector collector = new TopKCollector(limit);
+        char[] lastQuery = session.lastQuery;
+        // 搜索可能被取消，完成前先使会话缓存失效，避免留下不完整的匹配结果
+        session.lastQuery = null;
+        if (lastQuery != null && session.modCount == modCount && isSubsequence(lastQuery, queryChars)) {
+            // 原地压缩上一次的匹配结果
+            int[] matched = session.matchedSlots;
+            int count = 0;
+            for (int i = 0; i < session.matchedCount; i++) {
+                if ((i & CANCEL_CHECK_MASK) == 0) {
+                    ProgressManager.checkCanceled();
+                }
+                int slot = matched[i];
+                if (isSubsequence(queryChars, lowerNames[slot])) {
+                    matched[count++] = slot;
+                    offer(collector, matcher, boosts, slot);
+                }
+            }
+            session.matchedCount = count;
+        } else {
+            session.matchedCount = 0;
+            forEachMatch(queryChars, slot -> {
+                session.addMatchedSlot(slot);
+                offer(collector, matcher, boosts, slot);
+            });
+            session.modCount = modCount;
+        }
+        session.lastQuery = queryChars;
+        return collector.toList(this::methodAt);
+    }
+
+    /**
+     * 查找所有匹配的方法（不排序、不截断）
+     *
+     * @param lowerQuery 小写搜索词
+     * @return 匹配的方法
+     */
+    synchronized List<RpcMethodInfo> findSubsequenceMatches(String lowerQuery) {
+        List<RpcMethodInfo> results = new ArrayList<>();
+        forEachMatch(lowerQuery.toCharArray(), slot -> results.add(methodAt(slot)));
+        return results;
+    }
+
+    /**
+     * 带类名条件的搜索：先匹配类名，再在匹配的类中匹配方法名，得分为两者的加权和；没有方法名条件时列出匹配类的全部方法
+     */
+    private List<RpcMethodInfo> searchQualified(RpcMethodQuery query, int limit, Int2IntOpenHashMap boosts) {
+        int[] classScores = matchClasses(query);
+        TopKCollector collector = new TopKCollector(limit);
+        if (query.methodPart().isEmpty()) {
+            forEachSlotOfClasses(classScores,
+                    slot -> collector.offer(slot, classScores[classIds[slot]] + boosts.get(slot)));
+            return collector.toList(this::methodAt);
+        }
+
+        char[] methodChars = query.methodPart().toLowerCase().toCharArray();
+        CamelCaseMatcher methodMatcher = new CamelCaseMatcher(methodChars);
+        IntConsumer offer = slot -> {
+            int methodScore = methodMatcher.match(names.get(nameIds[slot]));
+            if (methodScore != CamelCaseMatcher.NO_MATCH) {
+                collector.offer(slot, methodScore * METHOD_WEIGHT + classScores[classIds[slot]] * CLASS_WEIGHT
+                        + boosts.get(slot));
+            }
+        };
+        long classSlotCount = 0;
+        for (int classId = 0; classId < classScores.length; classId++) {
+            if (classScores[classId] != CamelCaseMatcher.NO_MATCH) {
+                classSlotCount += slotsByClass[classId].size;
+            }
+        }
+        if (classSlotCount * CLASS_FIRST_RATIO <= size) {
+            // 匹配的类较少：只遍历这些类的方法
+            forEachSlotOfClasses(classScores, slot -> {
+                if (isSubsequence(methodChars, lowerNames[slot])) {
+                    offer.accept(slot);
+                }
+            });
+        } else {
+            // 匹配的类很多：按方法名位图过滤，再检查所在类是否匹配
+            forEachMatch(methodChars, slot -> {
+                if (classIds[slot] != NO_ID && classScores[classIds[slot]] != CamelCaseMatcher.NO_MATCH) {
+                    offer.accept(slot);
+                }
+            });
+        }
+        return collector.toList(this::methodAt);
+    }
+
+    /**
+     * 匹配类名，类名部分含 . 时匹配全限定名，否则匹配简单名
+     *
+     * @return 类名 id → 得分，不匹配或类中已没有方法时为 {@link CamelCaseMatcher#NO_MATCH}
+     */
+    private int[] matchClasses(RpcMethodQuery query) {
+        char[] classChars = query.classPart().toLowerCase().toCharArray();
+        boolean qualifiedName = query.matchesQualifiedClassName();
+        CamelCaseMatcher classMatcher = new CamelCaseMatcher(classChars);
+        int[] classScores = new int[indexedClassCount];
+        Arrays.fill(classScores, CamelCaseMatcher.NO_MATCH);
+        forEachCandidate(classPostings, indexedClassCount, classChars, classId -> {
+            if (classId >= slotsByClass.length || slotsByClass[classId] == null
+                    || !isSubsequence(classChars, lowerClassNames[classId])) {
+                return;
+            }
+            classScores[classId] = classMatcher.match(
+                    qualifiedName ? classNames.get(classId) : simpleClassNames[classId]);
+        });
+        return classScores;
+    }
+
+    private void forEachSlotOfClasses(int[] classScores, IntConsumer consumer) {
+        int visited = 0;
+        for (int classId = 0; classId < classScores.length; classId++) {
+            if (classScores[classId] == CamelCaseMatcher.NO_MATCH) {
+                continue;
+            }
+            SlotList classSlots = slotsByClass[classId];
+            for (int i = 0; i < classSlots.size; i++) {
+                if ((visited++ & CANCEL_CHECK_MASK) == 0) {
+                    ProgressManager.checkCanceled();
+                }
+                consumer.accept(classSlots.slots[i]);
+            }
+        }
+    }
+
+    /**
+     * 通过字符位图求交得到候选槽位，再对候选做子序列匹配，按槽位顺序回调匹配的槽位
+     */
+    private void forEachMatch(char[] queryChars, IntConsumer consumer) {
+        forEachCandidate(postings, slotLimit, queryChars, slot -> {
+            if (isSubsequence(queryChars, lowerNames[slot])) {
+                consumer.accept(slot);
+            }
+        });
+    }
+
+    /**
+     * 把查询词各字符对应的位图按位与，按 id 顺序回调同时包含这些字符的候选
+     *
+     * @param postings 字符 → 位图
+     * @param limit 最大 id（不含）
+     */
+    private static void forEachCandidate(long[][] postings, int limit, char[] queryChars, IntConsumer consumer) {
+        long[][] queryPostings = new long[BUCKET_COUNT][];
+        int postingCount = 0;
+        boolean[] seen = new boolean[BUCKET_COUNT];
+        for (char c : queryChars) {
+            int bucket = bucket(c);
+            if (!seen[bucket]) {
+                seen[bucket] = true;
+                queryPostings[postingCount++] = postings[bucket];
+            }
+        }
+
+        int wordCount = (limit + 63) >>> 6;
+        for (int word = 0; word < wordCount; word++) {
+            if ((word & CANCEL_CHECK_MASK) == 0) {
+                // 在后台搜索时响应取消
+                ProgressManager.checkCanceled();
+            }
+            long candidates = queryPostings[0][word];
+            for (int i = 1; i < postingCount && candidates != 0; i++) {
+                candidates &= queryPostings[i][word];
+            }
+            while (candidates != 0) {
+                int id = (word << 6) + Long.numberOfTrailingZeros(candidates);
+                candidates &= candidates - 1;
+                if (id < limit) {
+                    consumer.accept(id);
+                }
+            }
+        }
+    }
+
+    private static boolean isSubsequence(char[] query, char[] name) {
+        int q = 0;
+        for (int i = 0; i < name.length && q < query.length; i++) {
+            if (name[i] == query[q]) {
+                q++;
+            }
+        }
+        return q == query.length;
+    }
+
+    private static int bucket(char c) {
+        if (c >= 'a' && c <= 'z') {
+            return c - 'a';
+        }
+        if (c >= '0' && c <= '9') {
+            return 26 + c - '0';
+        }
+        return OTHER_BUCKET;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= nameIds.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, nameIds.length * 2);
+        nameIds = Arrays.copyOf(nameIds, newCapacity);
+        classIds = Arrays.copyOf(classIds, newCapacity);
+        fileIds = Arrays.copyOf(fileIds, newCapacity);
+        offsets = Arrays.copyOf(offsets, newCapacity);
+        lowerNames = Arrays.copyOf(lowerNames, newCapacity);
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            postings[i] = Arrays.copyOf(postings[i], newCapacity >>> 6);
+        }
+    }
+
+    /**
+     * 对通过子序列过滤的候选打分并提交
+     */
+    private void offer(TopKCollector collector, CamelCaseMatcher matcher, Int2IntOpenHashMap boosts, int slot) {
+        int score = matcher.match(names.get(nameIds[slot]));
+        if (score != CamelCaseMatcher.NO_MATCH) {
+            collector.offer(slot, score + boosts.get(slot));
+        }
+    }
+
+    /**
+     * 按方法名、类名排序当前所有槽位，并复制各列，之后索引的修改不影响已创建的列表
+     */
+    private SortedMethodList buildSortedMethods() {
+        int[] order = new int[size];
+        int count = 0;
+        for (int slot = 0; slot < slotLimit; slot++) {
+            if (nameIds[slot] != NO_ID) {
+                order[count++] = slot;
+            }
+        }
+        String[] nameValues = names.values;
+        String[] classValues = classNames.values;
+        IntArrays.quickSort(order, (a, b) -> {
+            int result = nameIds[a] == nameIds[b] ? 0 : nameValues[nameIds[a]].compareTo(nameValues[nameIds[b]]);
+            return result != 0 ? result : compareClassName(classValues, classIds[a], classIds[b]);
+        });
+
+        int[] sortedNameIds = new int[count];
+        int[] sortedClassIds = new int[count];
+        int[] sortedFileIds = new int[count];
+        int[] sortedOffsets = new int[count];
+        for (int i = 0; i < count; i++) {
+            int slot = order[i];
+            sortedNameIds[i] = nameIds[slot];
+            sortedClassIds[i] = classIds[slot];
+            sortedFileIds[i] = fileIds[slot];
+            sortedOffsets[i] = offsets[slot];
+        }
+        // 符号表只追加，重建时整体替换而不修改旧的值数组，引用当前的值数组即可
+        return new SortedMethodList(nameValues, classValues, filePaths.values, sortedNameIds, sortedClassIds,
+                sortedFileIds, sortedOffsets);
+    }
+
+    /**
+     * 比较类名，没有类名的排在前面
+     */
+    private static int compareClassName(String[] classValues, int classId, int otherClassId) {
+        if (classId == otherClassId) {
+            return 0;
+        }
+        if (classId == NO_ID || otherClassId == NO_ID) {
+            return classId == NO_ID ? -1 : 1;
+        }
+        return classValues[classId].compareTo(classValues[otherClassId]);
+    }
+
+    /**
+     * 按方法名、类名排序的只读方法列表，同名同类的方法（重载）相邻
+     *
+     * 列表只保存符号 id，{@link #get(int)} 时才创建方法对象，只有实际展示的行才会分配内存。
+     */
+    public static final class SortedMethodList {
+
+        private final String[] nameValues;
+        private final String[] classValues;
+        private final String[] fileValues;
+        private final int[] nameIds;
+        private final int[] classIds;
+        private final int[] fileIds;
+        private final int[] offsets;
+
+        private SortedMethodList(String[] nameValues, String[] classValues, String[] fileValues, int[] nameIds,
+                int[] classIds, int[] fileIds, int[] offsets) {
+            this.nameValues = nameValues;
+            this.classValues = classValues;
+            this.fileValues = fileValues;
+            this.nameIds = nameIds;
+            this.classIds = classIds;
+            this.fileIds = fileIds;
+            this.offsets = offsets;
+        }
+
+        public int size() {
+            return nameIds.length;
+        }
+
+        public RpcMethodInfo get(int index) {
+            return new RpcMethodInfo(nameValues[nameIds[index]], className(index), fileValues[fileIds[index]],
+                    offsets[index]);
+        }
+
+        private String className(int index) {
+            return classIds[index] == NO_ID ? null : classValues[classIds[index]];
+        }
+
+        /**
+         * 二分查找指定类中指定名称的方法（含重载）所在的下标区间
+         *
+         * @param className 类全限定名
+         * @param methodName 方法名
+         * @return [起始下标, 结束下标)，找不到时返回 null
+         */
+        public int[] rangeOf(String className, String methodName) {
+            if (methodName == null) {
+                return null;
+            }
+            int low = 0;
+            int high = nameIds.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (compare(mid, methodName, className) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            int end = low;
+            while (end < nameIds.length && compare(end, methodName, className) == 0) {
+                end++;
+            }
+            return end > low ? new int[]{low, end} : null;
+        }
+
+        private int compare(int index, String methodName, String className) {
+            int result = nameValues[nameIds[index]].compareTo(methodName);
+            if (result != 0) {
+                return result;
+            }
+            String indexClassName = className(index);
+            if (indexClassName == null || className == null) {
+                return indexClassName == null ? (className == null ? 0 : -1) : 1;
+            }
+            return indexClassName.compareTo(className);
+        }
+    }
+
+    /**
+     * 搜索会话，缓存上一次搜索词及其全部匹配槽位，用于输入过程中的增量过滤
+     */
+    public final class SearchSession {
+
+        private char[] lastQuery;
+        private int[] matchedSlots = new int[64];
+        private int matchedCount;
+        private long modCount;
+
+        private SearchSession() {
+        }
+
+        /**
+         * 搜索方法，按匹配度降序返回前 {@link #DEFAULT_LIMIT} 个
+         *
+         * @param query 搜索词
+         * @return 匹配的方法
+         */
+        public List<RpcMethodInfo> search(String query) {
+            return search(query, DEFAULT_LIMIT);
+        }
+
+        public List<RpcMethodInfo> search(String query, int limit) {
+            return search(query, limit, RpcMethodFrecency.EMPTY);
+        }
+
+        /**
+         * 搜索方法，匹配度相近时使用频率高的方法排在前面；使用频率只影响排序，不影响增量过滤
+         */
+        public synchronized List<RpcMethodInfo> search(String query, int limit, RpcMethodFrecency frecency) {
+            if (query == null || query.trim().isEmpty() || limit <= 0) {
+                reset();
+                return Collections.emptyList();
+            }
+            RpcMethodQuery parsed = RpcMethodQuery.parse(query);
+            if (parsed.isQualified() || parsed.methodPart().isEmpty()) {
+                // 带类名条件的搜索不做增量过滤
+                reset();
+                return RpcMethodNameIndex.this.search(parsed, limit, frecency);
+            }
+            return RpcMethodNameIndex.this.search(this, parsed.methodPart().toLowerCase().toCharArray(), limit,
+                    frecency);
+        }
+
+        /**
+         * 清空会话缓存，下次搜索走全量搜索
+         */
+        public synchronized void reset() {
+            lastQuery = null;
+            matchedCount = 0;
+        }
+
+        private void addMatchedSlot(int slot) {
+            if (matchedCount == matchedSlots.length) {
+                matchedSlots = Arrays.copyOf(matchedSlots, matchedCount * 2);
+            }
+            matchedSlots[matchedCount++] = slot;
+        }
+    }
+
+    /**
+     * 保留得分最高的前 K 个槽位的小顶堆
+     *
+     * 得分相同时槽位小的优先，因此结果与候选的提交顺序无关。
+     */
+    private static final class TopKCollector {
+
+        private final int[] slots;
+        private final int[] scores;
+        private int size;
+
+        TopKCollector(int limit) {
+            this.slots = new int[limit];
+            this.scores = new int[limit];
+        }
+
+        void offer(int slot, int score) {
+            if (size < slots.length) {
+                slots[size] = slot;
+                scores[size] = score;
+                siftUp(size++);
+            } else if (score > scores[0] || (score == scores[0] && slot < slots[0])) {
+                slots[0] = slot;
+                scores[0] = score;
+                siftDown(0);
+            }
+        }
+
+        /**
+         * 堆中 i 是否比 j 更差（更应该被淘汰）
+         */
+        private boolean worse(int i, int j) {
+            return scores[i] < scores[j] || (scores[i] == scores[j] && slots[i] > slots[j]);
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!worse(i, parent)) {
+                    break;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int left = 2 * i + 1;
+                if (left >= size) {
+                    break;
+                }
+                int worst = left;
+                int right = left + 1;
+                if (right < size && worse(right, left)) {
+                    worst = right;
+                }
+                if (!worse(worst, i)) {
+                    break;
+                }
+                swap(i, worst);
+                i = worst;
+            }
+        }
+
+        private void swap(int i, int j) {
+            int slot = slots[i];
+            slots[i] = slots[j];
+            slots[j] = slot;
+            int score = scores[i];
+            scores[i] = scores[j];
+            scores[j] = score;
+        }
+
+        /**
+         * 依次弹出堆顶（最差的结果）倒序填充，得到得分降序的列表
+         */
+        List<RpcMethodInfo> toList(IntFunction<RpcMethodInfo> methods) {
+            RpcMethodInfo[] result = new RpcMethodInfo[size];
+            while (size > 0) {
+                result[size - 1] = methods.apply(slots[0]);
+                swap(0, --size);
+                siftDown(0);
+            }
+            return Arrays.asList(result);
+        }
+    }
+
+    /**
+     * 只追加的字符串符号表，同一个字符串只保存一份，id 从 0 开始连续分配
+     *
+     * 字符串 → id 使用基本类型值的开放寻址哈希表，不为每个符号分配哈希表节点和装箱的 Integer。
+     */
+    private static final class SymbolTable {
+
+        private final Object2IntOpenHashMap<String> ids = new Object2IntOpenHashMap<>();
+        private String[] values = new String[64];
+
+        SymbolTable() {
+            ids.defaultReturnValue(NO_ID);
+        }
+
+        int intern(String value) {
+            int id = ids.getInt(value);
+            if (id != NO_ID) {
+                return id;
+            }
+            int newId = ids.size();
+            if (newId == values.length) {
+                values = Arrays.copyOf(values, newId * 2);
+            }
+            values[newId] = value;
+            ids.put(value, newId);
+            return newId;
+        }
+
+        int find(String value) {
+            return ids.getInt(value);
+        }
+
+        String get(int id) {
+            return values[id];
+        }
+
+        int size() {
+            return ids.size();
+        }
+    }
+
+    /**
+     * 槽位列表，同一文件/类的方法数很少，移除时线性查找即可
+     */
+    private static final class SlotList {
+
+        private int[] slots = new int[4];
+        private int size;
+
+        void add(int slot) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            slots[size++] = slot;
+        }
+
+        boolean remove(int slot) {
+            for (int i = 0; i < size; i++) {
+                if (slots[i] == slot) {
+                    slots[i] = slots[--size];
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package cn.bigcoder.soa.helper.search;
+
+/**
+ * 解析后的搜索词
+ *
+ * 支持以下写法：
+ * <ul>
+ *     <li>{@code getUser}：只匹配方法名</li>
+ *     <li>{@code OrderService.create}、{@code order#create}：# 或最后一个 . 之前匹配类名，之后匹配方法名</li>
+ *     <li>{@code order service create}：空格分隔，最后一个词匹配方法名，前面的词拼接后匹配类名（如 OrderService）</li>
+ *     <li>{@code OrderService.}、{@code order#}：只匹配类名，列出该类的全部方法</li>
+ * </ul>
+ * 类名部分不含 . 时匹配类的简单名，含 . 时（如 {@code hotel.OrderService.create}）匹配类的全限定名，可借助包名区分同名服务。
+ *
+ * @param classPart 类名部分，没有时为空字符串
+ * @param methodPart 方法名部分，没有时为空字符串
+ */
+public record RpcMethodQuery(String classPart, String methodPart) {
+
+    private static final char CLASS_METHOD_SEPARATOR = '#';
+
+    public static RpcMethodQuery parse(String query) {
+        String text = query.trim();
+        int separator = text.indexOf(CLASS_METHOD_SEPARATOR);
+        if (separator >= 0) {
+            return new RpcMethodQuery(text.substring(0, separator).trim(), text.substring(separator + 1).trim());
+        }
+        String[] tokens = text.split("\\s+");
+        if (tokens.length > 1) {
+            // 空格分隔的多个词：最后一个词之前的部分直接拼接（order service → orderservice），匹配类的简单名中连续的单词
+            String last = tokens[tokens.length - 1];
+            StringBuilder classPart = new StringBuilder();
+            for (int i = 0; i < tokens.length - 1; i++) {
+                classPart.append(tokens[i]);
+            }
+            return split(classPart + "." + last);
+        }
+        return split(text);
+    }
+
+    private static RpcMethodQuery split(String text) {
+        int dot = text.lastIndexOf('.');
+        if (dot < 0) {
+            return new RpcMethodQuery("", text);
+        }
+        return new RpcMethodQuery(trimDots(text.substring(0, dot)), text.substring(dot + 1));
+    }
+
+    private static String trimDots(String text) {
+        int start = 0;
+        int end = text.length();
+        while (start < end && text.charAt(start) == '.') {
+            start++;
+        }
+        while (end > start && text.charAt(end - 1) == '.') {
+            end--;
+        }
+        return text.substring(start, end);
+    }
+
+    /**
+     * @return 是否包含类名条件
+     */
+    public boolean isQualified() {
+        return !classPart.isEmpty();
+    }
+
+    /**
+     * @return 类名部分是否按全限定名匹配
+     */
+    public boolean matchesQualifiedClassName() {
+        return classPart.indexOf('.') >= 0;
+    }
+
+    /**
+     * @return 是否没有任何条件
+     */
+    public boolean isEmpty() {
+        return classPart.isEmpty() && methodPart.isEmpty();
+    }
+}
@@ -0,0 +1,78 @@
+package cn.bigcoder.soa.helper.ui;
+
+import cn.bigcoder.soa.helper.search.RpcMethodInfo;
+import cn.bigcoder.soa.helper.search.RpcMethodNameIndex.SortedMethodList;
+import java.util.Arrays;
+import java.util.List;
+import javax.swing.AbstractListModel;
+
+/**
+ * 搜索结果列表模型
+ *
+ * 直接引用缓存中已排序的方法列表，不复制数据：列表由“头部条目 + 分隔符 + 剩余方法”三段组成，
+ * 剩余方法通过下标映射跳过已在头部展示过的方法，元素在 Swing 绘制可见行时才按需计算。
+ */
+public class RpcMethodListModel extends AbstractListModel<RpcMethodInfo> {
+
+    private final List<RpcMethodInfo> head;
+    private final RpcMethodInfo separator;
+    private final SortedMethodList tail;
+    /**
+     * 需要从剩余方法中跳过的下标（升序）
+     */
+    private final int[] excluded;
+
+    /**
+     * 只包含给定条目的列表（如搜索结果）
+     */
+    public RpcMethodListModel(List<RpcMethodInfo> items) {
+        this(items, null, null, new int[0]);
+    }
+
+    /**
+     * @param head 展示在最前面的条目（如历史记录）
+     * @param separator 头部与剩余方法之间的分隔条目，为 null 时不展示
+     * @param tail 剩余方法
+     * @param excluded 需要从剩余方法中跳过的下标
+     */
+    public RpcMethodListModel(List<RpcMethodInfo> head, RpcMethodInfo separator, SortedMethodList tail,
+            int[] excluded) {
+        this.head = head;
+        this.separator = separator;
+        this.tail = tail;
+        this.excluded = excluded.clone();
+        Arrays.sort(this.excluded);
+    }
+
+    @Override
+    public int getSize() {
+        int size = head.size() + (separator != null ? 1 : 0);
+        if (tail != null) {
+            size += tail.size() - excluded.length;
+        }
+        return size;
+    }
+
+    @Override
+    public RpcMethodInfo getElementAt(int index) {
+        if (index < head.size()) {
+            return head.get(index);
+        }
+        index -= head.size();
+        if (separator != null) {
+            if (index == 0) {
+                return separator;
+            }
+            index--;
+        }
+        // 跳过已排除的下标，排除项最多只有历史记录的数量
+        int tailIndex = index;
+        for (int skipped : excluded) {
+            if (skipped > tailIndex) {
+                break;
+            }
+            tailIndex++;
+        }
+        return tail.get(tailIndex);
+    }
+}
@@ -1,42 +1,49 @@
 package cn.bigcoder.soa.helper.ui;
 
+import cn.bigcoder.soa.helper.search.CamelCaseMatcher;
 import cn.bigcoder.soa.helper.search.IndexLoadHook;
 import cn.bigcoder.soa.helper.search.RpcMethodCache;
 import cn.bigcoder.soa.helper.search.RpcMethodHistoryInfo;
 import cn.bigcoder.soa.helper.search.RpcMethodHistoryManager;
 import cn.bigcoder.soa.helper.search.RpcMethodInfo;
-import cn.bigcoder.soa.helper.util.KeywordUtil;
+import cn.bigcoder.soa.helper.search.RpcMethodQuery;
+import cn.bigcoder.soa.helper.search.RpcMethodNameIndex.SortedMethodList;
 import com.intellij.icons.AllIcons.Nodes;
 import com.intellij.icons.AllIcons;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.application.ReadAction;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.ui.DialogWrapper;
+import com.intellij.ui.ColoredListCellRenderer;
+import com.intellij.ui.JBColor;
+import com.intellij.ui.SimpleTextAttributes;
 import com.intellij.ui.components.JBList;
 import com.intellij.ui.components.JBScrollPane;
+import com.intellij.util.Alarm;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import com.intellij.util.ui.JBUI;
 import java.awt.BorderLayout;
-import java.awt.Component;
+import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Font;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
-import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.function.Function;
-import java.util.stream.Collectors;
 import javax.swing.Action;
-import javax.swing.DefaultListCellRenderer;
 import javax.swing.JButton;
 import javax.swing.JComponent;
 import javax.swing.JLabel;
 import javax.swing.JList;
 import javax.swing.JPanel;
 import javax.swing.JTextField;
+import javax.swing.ListModel;
 import javax.swing.ScrollPaneConstants;
-import org.apache.commons.collections.CollectionUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -56,6 +63,18 @@ public class RpcMethodSearchDialog extends DialogWrapper {
     private JPanel centerPanel;
     private String loadIndexHookId;
     private final RpcMethodHistoryManager historyManager;
+    /**
+     * 搜索会话，连续输入时在上一次的匹配结果中过滤
+     */
+    private final RpcMethodCache.SearchSession searchSession;
+    /**
+     * 搜索防抖定时器
+     */
+    private final Alarm searchAlarm;
+    /**
+     * 列表当前展示的结果对应的搜索词，渲染器据此高亮，避免输入框已变化而结果尚未刷新时高亮错位
+     */
+    private String displayedQuery = "";
 
     /**
      * 存储每个项目的最后搜索词
@@ -75,13 +94,20 @@ public class RpcMethodSearchDialog extends DialogWrapper {
      * 默认字体大小
      */
     private static final int DEFAULT_FONT_SIZE = 15;
+    /**
+     * 搜索防抖间隔（毫秒）
+     */
+    private static final int SEARCH_DEBOUNCE_MILLIS = 30;
+    private static final int[] EMPTY_RANGES = new int[0];
 
     public RpcMethodSearchDialog(Project project, RpcMethodCache cache) {
         super(project, false);
         this.project = project;
         this.cache = cache;
-        this.projectIndexReady = cache.isProjectIndexReady();
+        this.projectIndexReady = cache.isSearchReady();
         historyManager = RpcMethodHistoryManager.getInstance(project);
+        searchSession = cache.newSearchSession();
+        searchAlarm = new Alarm(Alarm.ThreadToUse.SWING_THREAD, getDisposable());
         setTitle("SOA RPC Method Search");
         init();
         this.setSize(DEFAULT_WIDTH, DEFAULT_HEIGHT);
@@ -94,27 +120,38 @@ public class RpcMethodSearchDialog extends DialogWrapper {
 
             @Override
             public void beforeProjectIndexLoad() {
-                // 项目索引开始加载
-                projectIndexReady = false;
+                // 项目索引开始加载，已从磁盘恢复方法索引时仍可继续搜索
+                projectIndexReady = cache.isSearchReady();
                 // 更新索引加载状态
                 refreshIndexLoading();
             }
 
 
+            // 扫描相关的钩子在构建索引的后台线程中触发，界面状态统一在 UI 线程中修改，两个钩子按触发顺序执行
             @Override
             public void beforeSoaMethodLoad() {
-                searchField.setEnabled(false);
-                refreshButton.setEnabled(false);
-                setStatusText("正在加载soa服务方法索引...");
-                initResultList();
+                invokeLaterIfShowing(() -> {
+                    refreshButton.setEnabled(false);
+                    if (cache.getMethodCount() > 0) {
+                        // 后台构建新的索引期间，继续使用当前索引搜索
+                        setStatusText("正在后台更新soa服务方法索引...");
+                        return;
+                    }
+                    searchField.setEnabled(false);
+                    setStatusText("正在加载soa服务方法索引...");
+                    initResultList();
+                });
             }
 
             @Override
             public void afterSoaMethodLoad() {
-                searchField.setEnabled(true);
-                refreshButton.setEnabled(true);
-                setStatusText("");
-                initResultList();
+                invokeLaterIfShowing(() -> {
+                    searchField.setEnabled(true);
+                    refreshButton.setEnabled(true);
+                    setStatusText("");
+                    // 新的索引已发布，按当前搜索词刷新结果
+                    updateResults();
+                });
             }
         });
     }
@@ -131,19 +168,25 @@ public class RpcMethodSearchDialog extends DialogWrapper {
         searchField = new JTextField();
         searchField.setFont(searchField.getFont().deriveFont(Font.PLAIN, DEFAULT_FONT_SIZE));
         searchField.setBorder(null);
+        searchField.setToolTipText("支持 方法名、类名.方法名、类名#方法名、包名.类名.方法名，以及空格分隔的 类名 方法名");
         
         searchField.addKeyListener(new KeyAdapter() {
             @Override
             public void keyReleased(KeyEvent e) {
+                if (e.getKeyCode() == KeyEvent.VK_ENTER) {
+                    // 列表中可能还是上一个搜索词的结果，先确保展示的是当前搜索词的结果再打开第一项
+                    searchNowIfStale();
+                    if (!resultList.isEmpty()) {
+                        resultList.setSelectedIndex(0);
+                        doOKAction();
+                    }
+                    return;
+                }
+
                 // 仅在输入框有文本时更新结果
                 if (projectIndexReady) {
                     updateResults();
                 }
-
-                if (e.getKeyCode() == KeyEvent.VK_ENTER && !resultList.isEmpty()) {
-                    resultList.setSelectedIndex(0);
-                    doOKAction();
-                }
             }
 
             @Override
@@ -299,6 +342,13 @@ public class RpcMethodSearchDialog extends DialogWrapper {
     /**
      * 启动索引加载过程
      */
+    /**
+     * 在 UI 线程中执行，对话框关闭后不再执行
+     */
+    private void invokeLaterIfShowing(Runnable runnable) {
+        ApplicationManager.getApplication().invokeLater(runnable, ModalityState.any(), o -> isDisposed());
+    }
+
     private void refreshIndexLoading() {
         // 如果索引尚未准备好，启动加载
         if (!projectIndexReady) {
@@ -314,45 +364,39 @@ public class RpcMethodSearchDialog extends DialogWrapper {
     /**
      * 初始化结果列表
      * 历史记录优先展示，然后显示剩余方法
+     * 列表模型直接引用缓存中已排序的全部方法，只查找历史记录对应的方法，打开搜索框的开销与方法总数无关
      */
     private void initResultList() {
         // 索引加载完成后显示历史记录
         List<RpcMethodHistoryInfo> history = historyManager.getHistories();
-        List<RpcMethodInfo> rpcMethodInfos = cache.searchAll();
-        if (CollectionUtils.isEmpty(rpcMethodInfos)) {
-            resultList.setListData(new RpcMethodInfo[0]);
+        SortedMethodList allMethods = cache.getSortedMethods();
+        if (allMethods.size() == 0) {
+            displayedQuery = "";
+            resultList.setModel(new RpcMethodListModel(List.of()));
             return;
         }
 
-        if (history.isEmpty()) {
-            resultList.setListData(rpcMethodInfos.toArray(new RpcMethodInfo[0]));
-        } else {
-            Map<String, RpcMethodInfo> cacheMap = rpcMethodInfos.stream()
-                    .collect(Collectors.toMap(e -> e.className() + "#" + e.methodName(), Function.identity(),
-                            (o1, o2) -> o1));
-            List<RpcMethodInfo> historyList = history.stream()
-                    .map(e -> cacheMap.get(e.getClassName() + "#" + e.getMethodName()))
-                    .filter(Objects::nonNull)
-                    .toList();
-
-            // 计算历史方法的key集合
-            Set<String> historyKeys = historyList.stream()
-                    .map(e -> e.className() + "#" + e.methodName())
-                    .collect(Collectors.toSet());
-
-            // 计算剩余方法列表（排除历史方法）
-            List<RpcMethodInfo> remainingMethods = rpcMethodInfos.stream()
-                    .filter(e -> !historyKeys.contains(e.className() + "#" + e.methodName()))
-                    .toList();
-            // 合并历史方法和剩余方法
-            List<RpcMethodInfo> combinedList = new ArrayList<>(historyList);
-            // 添加空方法，用于分隔历史方法和剩余方法
-            if (CollectionUtils.isNotEmpty(historyList)) {
-                combinedList.add(new RpcMethodInfo(PLUGIN_SEPARATOR, null, null, 0));
+        // 在已排序的方法中二分查找历史方法，同名重载只展示第一个，其余从剩余方法中排除
+        List<RpcMethodInfo> historyList = new ArrayList<>();
+        List<Integer> historyIndexes = new ArrayList<>();
+        for (RpcMethodHistoryInfo historyInfo : history) {
+            int[] range = allMethods.rangeOf(historyInfo.getClassName(), historyInfo.getMethodName());
+            if (range == null) {
+                continue;
+            }
+            historyList.add(allMethods.get(range[0]));
+            for (int i = range[0]; i < range[1]; i++) {
+                historyIndexes.add(i);
             }
-            combinedList.addAll(remainingMethods);
-            resultList.setListData(combinedList.toArray(new RpcMethodInfo[0]));
         }
+        int[] excluded = historyIndexes.stream().mapToInt(Integer::intValue).distinct().toArray();
+
+        // 添加空方法，用于分隔历史方法和剩余方法
+        RpcMethodInfo separator = historyList.isEmpty() ? null : new RpcMethodInfo(PLUGIN_SEPARATOR, null, null, 0);
+        // 固定单元格宽度，避免 Swing 为计算列表宽度渲染全部方法
+        resultList.setFixedCellWidth(DEFAULT_WIDTH);
+        displayedQuery = "";
+        resultList.setModel(new RpcMethodListModel(historyList, separator, allMethods, excluded));
     }
 
     /**
@@ -364,15 +408,56 @@ public class RpcMethodSearchDialog extends DialogWrapper {
 
     private void updateResults() {
         String query = searchField.getText().toLowerCase();
+        // 取消尚未开始的搜索
+        searchAlarm.cancelAllRequests();
         if (query.isEmpty()) {
             // 搜索词清空后，重新初始化结果列表
             initResultList();
         } else {
-            List<RpcMethodInfo> results = cache.search(query);
-            resultList.setListData(results.toArray(new RpcMethodInfo[0]));
+            // 防抖：连续输入时只搜索最后一次的搜索词
+            searchAlarm.addRequest(() -> submitSearch(query), SEARCH_DEBOUNCE_MILLIS);
         }
     }
 
+    /**
+     * 在后台线程执行搜索，新的搜索提交后，尚未完成的旧搜索会被取消，只有最新搜索词的结果会展示到列表中
+     */
+    private void submitSearch(String query) {
+        ReadAction.nonBlocking(() -> searchSession.search(query))
+                .coalesceBy(this)
+                .expireWith(getDisposable())
+                .finishOnUiThread(ModalityState.any(), results -> {
+                    // 搜索期间输入框内容已变化，丢弃过期结果
+                    if (query.equals(searchField.getText().toLowerCase())) {
+                        showResults(query, results);
+                    }
+                })
+                .submit(AppExecutorUtil.getAppExecutorService());
+    }
+
+    /**
+     * 展示的结果不是当前搜索词的结果时（防抖等待中或后台搜索尚未完成），取消待执行的搜索并在当前线程立即搜索
+     */
+    private void searchNowIfStale() {
+        String query = searchField.getText().toLowerCase();
+        if (!projectIndexReady || query.equals(displayedQuery)) {
+            return;
+        }
+        searchAlarm.cancelAllRequests();
+        if (query.isEmpty()) {
+            initResultList();
+        } else {
+            showResults(query, searchSession.search(query));
+        }
+    }
+
+    private void showResults(String query, List<RpcMethodInfo> results) {
+        // 搜索结果数量有限，按内容计算宽度以支持横向滚动
+        resultList.setFixedCellWidth(-1);
+        displayedQuery = query;
+        resultList.setModel(new RpcMethodListModel(results));
+    }
+
     public RpcMethodInfo getSelectedMethod() {
         return selectedMethod;
     }
@@ -399,50 +484,152 @@ public class RpcMethodSearchDialog extends DialogWrapper {
         return new Action[0];
     }
 
-    private static class RpcMethodListCellRenderer extends DefaultListCellRenderer {
+    /**
+     * 结果列表渲染器
+     *
+     * 直接按字符区间绘制高亮片段，不拼接 HTML，也不需要 Swing 解析 HTML。高亮区间按当前列表模型缓存，
+     * 列表换上新的结果（哪怕搜索词相同）后整体失效，滚动或重绘时不再重复计算，也不会持有已替换结果中的方法对象。
+     */
+    private static class RpcMethodListCellRenderer extends ColoredListCellRenderer<RpcMethodInfo> {
+
+        private static final SimpleTextAttributes HIGHLIGHT_ATTRIBUTES = new SimpleTextAttributes(
+                new Color(0xBA9752), JBColor.BLACK, null, SimpleTextAttributes.STYLE_PLAIN);
 
         private final RpcMethodSearchDialog dialog;
+        /**
+         * 高亮区间缓存对应的列表模型和搜索词
+         */
+        private ListModel<?> cachedModel;
+        private String cachedQuery = "";
+        /**
+         * 当前搜索词的方法名、类名匹配器，高亮区间与搜索结果的排序使用同一套匹配规则，没有对应条件时为 null
+         */
+        private CamelCaseMatcher methodMatcher;
+        private CamelCaseMatcher classMatcher;
+        private boolean qualifiedClassMatch;
+        /**
+         * 类名 → 类名中的高亮区间，同一个类的方法共用
+         */
+        private final Map<String, int[]> classHighlightCache = new HashMap<>();
+        /**
+         * 方法 → 方法名中的高亮区间，列表元素直接引用缓存中的方法对象，按引用比较即可
+         */
+        private final Map<RpcMethodInfo, int[]> highlightCache = new IdentityHashMap<>();
+        private Font baseFont;
+        private Font cellFont;
 
         public RpcMethodListCellRenderer(RpcMethodSearchDialog dialog) {
             this.dialog = dialog;
+            // 设置左右内边距
+            setIpad(JBUI.insets(0, 8));
         }
 
         @Override
-        public Component getListCellRendererComponent(JList<?> list, Object value, int index, boolean isSelected,
-                boolean cellHasFocus) {
-            super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
+        protected void customizeCellRenderer(@NotNull JList<? extends RpcMethodInfo> list, RpcMethodInfo method,
+                int index, boolean selected, boolean hasFocus) {
+            if (list.getFont() != baseFont) {
+                baseFont = list.getFont();
+                cellFont = baseFont.deriveFont(Font.PLAIN, DEFAULT_FONT_SIZE);
+            }
+            setFont(cellFont);
+            if (method == null) {
+                return;
+            }
+            refreshCaches(list.getModel());
+
+            // 检查是否为分隔符
+            if (PLUGIN_SEPARATOR.equals(method.methodName())) {
+                // 设置分隔符文案
+                append("──────────────────── 以下是更多方法 ──────────────────────",
+                        SimpleTextAttributes.GRAYED_ATTRIBUTES);
+                setIcon(null);
+                setBackground(list.getBackground());
+                return;
+            }
 
-            if (value instanceof RpcMethodInfo method) {
-                String query = dialog.searchField.getText().toLowerCase();
-                String methodName = method.methodName();
-                String className = method.className();
-                // 设置左右内边距（例如左右各10像素）
-                setBorder(JBUI.Borders.empty(0, 8)); // 上下0，左右10
+            String methodName = method.methodName();
+            int[] ranges = getHighlightRanges(method);
+            int last = 0;
+            for (int i = 0; i < ranges.length; i += 2) {
+                if (ranges[i] > last) {
+                    append(methodName.substring(last, ranges[i]), SimpleTextAttributes.REGULAR_ATTRIBUTES);
+                }
+                append(methodName.substring(ranges[i], ranges[i + 1]), HIGHLIGHT_ATTRIBUTES);
+                last = ranges[i + 1];
+            }
+            if (last < methodName.length()) {
+                append(methodName.substring(last), SimpleTextAttributes.REGULAR_ATTRIBUTES);
+            }
+            appendClassName(method.className());
+            // 设置 IDEA 官方类图标
+            setIcon(Nodes.Method);
+        }
 
-                // 检查是否为分隔符
-                if (method.methodName() != null && method.methodName().equals(PLUGIN_SEPARATOR)) {
-                    // 设置分隔符文案
-                    setText("──────────────────── 以下是更多方法 ──────────────────────");
-                    setPreferredSize(new Dimension(list.getWidth(), 20));
-                    setBackground(list.getBackground());
-                    // 设置不可选中和获取焦点
-                    setEnabled(false);
-                    setFocusable(false);
-                    setRequestFocusEnabled(false);
-                    return this;
+        /**
+         * 追加类名，搜索词带类名条件时高亮类名中匹配的部分
+         */
+        private void appendClassName(String className) {
+            append(" of ", SimpleTextAttributes.GRAYED_ATTRIBUTES);
+            if (className == null) {
+                append("null", SimpleTextAttributes.GRAYED_ATTRIBUTES);
+                return;
+            }
+            int[] ranges = getClassHighlightRanges(className);
+            int last = 0;
+            for (int i = 0; i < ranges.length; i += 2) {
+                if (ranges[i] > last) {
+                    append(className.substring(last, ranges[i]), SimpleTextAttributes.GRAYED_ATTRIBUTES);
                 }
+                append(className.substring(ranges[i], ranges[i + 1]), HIGHLIGHT_ATTRIBUTES);
+                last = ranges[i + 1];
+            }
+            if (last < className.length()) {
+                append(className.substring(last), SimpleTextAttributes.GRAYED_ATTRIBUTES);
+            }
+        }
 
-                String highlightedMethodName = KeywordUtil.highlightMatches(methodName, query,
-                        "<font style='background-color: #BA9752;color: black;'>", "</font>");
+        private int[] getHighlightRanges(RpcMethodInfo method) {
+            if (methodMatcher == null) {
+                return EMPTY_RANGES;
+            }
+            return highlightCache.computeIfAbsent(method, m -> methodMatcher.matchRanges(m.methodName()));
+        }
+
+        private int[] getClassHighlightRanges(String className) {
+            if (classMatcher == null) {
+                return EMPTY_RANGES;
+            }
+            return classHighlightCache.computeIfAbsent(className, name -> {
+                if (qualifiedClassMatch) {
+                    return classMatcher.matchRanges(name);
+                }
+                // 按简单名匹配时，区间需要加上包名的长度
+                int offset = name.lastIndexOf('.') + 1;
+                int[] ranges = classMatcher.matchRanges(name.substring(offset));
+                for (int i = 0; i < ranges.length; i++) {
+                    ranges[i] += offset;
+                }
+                return ranges;
+            });
+        }
 
-                setText("<html><div style='white-space: nowrap; display: inline-block'><span>" + highlightedMethodName
-                        + "</span> <font color='gray'>of " + className
-                        + "</font></div></html>");
-                // 设置 IDEA 官方类图标
-                setIcon(Nodes.Method);
+        private void refreshCaches(ListModel<?> model) {
+            if (model == cachedModel) {
+                return;
+            }
+            // 列表已换上新的结果，旧结果的高亮区间全部失效，缓存不再引用旧的方法对象
+            cachedModel = model;
+            highlightCache.clear();
+            classHighlightCache.clear();
+            String query = dialog.displayedQuery;
+            if (query.equals(cachedQuery)) {
+                return;
             }
-            setFont(getFont().deriveFont(Font.PLAIN, DEFAULT_FONT_SIZE));
-            return this;
+            cachedQuery = query;
+            RpcMethodQuery parsed = RpcMethodQuery.parse(query);
+            methodMatcher = parsed.methodPart().isEmpty() ? null : new CamelCaseMatcher(parsed.methodPart());
+            classMatcher = parsed.isQualified() ? new CamelCaseMatcher(parsed.classPart()) : null;
+            qualifiedClassMatch = parsed.matchesQualifiedClassName();
         }
     }
 
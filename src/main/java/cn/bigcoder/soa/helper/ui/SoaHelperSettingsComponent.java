@@ -614,7 +614,7 @@ public class SoaHelperSettingsComponent {
             previewArea.setEditable(false);
             previewArea.setBackground(new Color(245, 245, 245));
             
-            templateParser = new TemplateParser();
+            templateParser = TemplateParser.getInstance();
             
             if (option != null) {
                 nameField.setText(option.getName());
@@ -738,8 +738,8 @@ public class SoaHelperSettingsComponent {
                 
                 // 检查模板是否使用了扩展变量
                 Set<String> extendedVarNames = Set.of("momProjectId", "momVersion", "serviceCode");
-                boolean usesExtended = extendedVarNames.stream()
-                        .anyMatch(v -> template.contains("${" + v + "}"));
+                Set<String> usedVarNames = TemplateParser.compile(template).getVariableNames();
+                boolean usesExtended = extendedVarNames.stream().anyMatch(usedVarNames::contains);
                 if (extHintLabel != null) {
                     if (usesExtended && !SoaHelperSettings.getInstance().isExtendedFieldsEnabled()) {
                         extHintLabel.setText("该模板使用了扩展变量，请确保在设置中启用扩展字段功能");
@@ -791,7 +791,7 @@ public class SoaHelperSettingsComponent {
             previewArea.setEditable(false);
             previewArea.setBackground(new Color(245, 245, 245));
             
-            templateParser = new TemplateParser();
+            templateParser = TemplateParser.getInstance();
             
             if (option != null) {
                 nameField.setText(option.getName());
@@ -0,0 +1,291 @@
+package cn.bigcoder.soa.helper.util;
+
+import cn.bigcoder.soa.helper.util.AppIdUtil.AppIdInfo;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.module.ModuleManager;
+import com.intellij.openapi.project.ModuleListener;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ModuleRootEvent;
+import com.intellij.openapi.roots.ModuleRootListener;
+import com.intellij.openapi.roots.ModuleRootManager;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileContentChangeEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileCreateEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.util.messages.MessageBusConnection;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * 模块 AppId 解析服务
+ *
+ * 首次查询时一次性计算全部模块的 appId：先读取每个模块自身的 app.properties，再从每个拥有 appId 的模块出发，
+ * 沿预先收集的模块依赖图做一次传递遍历，把该 appId 记到它直接或间接依赖的所有模块上。之后的查询只是一次哈希查找。
+ *
+ * app.properties 的解析结果按文件修改戳缓存，文件未变化时不再重复读取。模块依赖变化（{@link ModuleRootListener}）、
+ * 模块增删或 app.properties 变化时整体失效，下次查询时重新计算。
+ */
+public class AppIdService implements Disposable {
+
+    private static final String APP_PROPERTIES_FILE_NAME = "app.properties";
+    private static final String APP_ID_KEY = "app.id";
+    /**
+     * 内容根目录下查找 app.properties 的相对路径
+     */
+    private static final String[] CONTENT_ROOT_PATHS = {
+            "src/main/resources/META-INF/app.properties",
+            "resources/META-INF/app.properties",
+            "META-INF/app.properties"
+    };
+    private static final String SOURCE_ROOT_PATH = "META-INF/app.properties";
+
+    private final Project project;
+    /**
+     * 当前的模块 → appId 映射，失效时为 null
+     */
+    private volatile AppIdMapping mapping;
+    /**
+     * 失效次数，计算期间发生失效时不发布计算结果
+     */
+    private final AtomicLong modCount = new AtomicLong();
+    /**
+     * app.properties 路径 → 按修改戳缓存的 app.id
+     */
+    private final Map<String, CachedAppId> appIdsByFile = new ConcurrentHashMap<>();
+
+    public AppIdService(Project project) {
+        this.project = project;
+        MessageBusConnection connection = project.getMessageBus().connect(this);
+        connection.subscribe(ModuleRootListener.TOPIC, new ModuleRootListener() {
+            @Override
+            public void rootsChanged(@NotNull ModuleRootEvent event) {
+                invalidate();
+            }
+        });
+        connection.subscribe(ModuleListener.TOPIC, new ModuleListener() {
+            @Override
+            public void modulesAdded(@NotNull Project project, @NotNull List<? extends Module> modules) {
+                invalidate();
+            }
+
+            @Override
+            public void moduleRemoved(@NotNull Project project, @NotNull Module module) {
+                invalidate();
+            }
+        });
+        connection.subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener() {
+            @Override
+            public void after(@NotNull List<? extends VFileEvent> events) {
+                for (VFileEvent event : events) {
+                    if (affectsAppProperties(event)) {
+                        invalidate();
+                        return;
+                    }
+                }
+            }
+        });
+    }
+
+    public static AppIdService getInstance(Project project) {
+        return project.getService(AppIdService.class);
+    }
+
+    /**
+     * 获取模块自身 app.properties 中的 appId
+     *
+     * @param module IDEA 模块
+     * @return appId，找不到时返回 null
+     */
+    public String getAppId(Module module) {
+        if (module == null) {
+            return null;
+        }
+        return getMapping().directAppIds.get(module);
+    }
+
+    /**
+     * 获取模块关联的所有 appId：模块自身有 appId 时只返回自身，否则返回直接或间接依赖该模块且拥有 appId 的模块
+     *
+     * @param module IDEA 模块
+     * @return 关联的 AppIdInfo 列表，可能为空
+     */
+    public List<AppIdInfo> getAppIds(Module module) {
+        if (module == null) {
+            return List.of();
+        }
+        return getMapping().appIds.getOrDefault(module, List.of());
+    }
+
+    /**
+     * 使当前映射失效，下次查询时重新计算
+     */
+    public void invalidate() {
+        modCount.incrementAndGet();
+        mapping = null;
+    }
+
+    private AppIdMapping getMapping() {
+        AppIdMapping current = mapping;
+        if (current != null) {
+            return current;
+        }
+        long stamp = modCount.get();
+        AppIdMapping computed = ReadAction.compute(this::computeMapping);
+        synchronized (this) {
+            // 计算期间发生了失效，结果可能已过期，只用于本次查询
+            if (modCount.get() == stamp) {
+                mapping = computed;
+            }
+        }
+        return computed;
+    }
+
+    /**
+     * 一次性计算全部模块的 appId，需要在读操作中调用
+     */
+    private AppIdMapping computeMapping() {
+        Module[] modules = ModuleManager.getInstance(project).getModules();
+        Map<Module, String> directAppIds = new IdentityHashMap<>();
+        Map<Module, Module[]> dependencies = new IdentityHashMap<>();
+        for (Module module : modules) {
+            if (module.isDisposed()) {
+                continue;
+            }
+            String appId = findAppIdInModule(module);
+            if (appId != null && !appId.isEmpty()) {
+                directAppIds.put(module, appId);
+            }
+            dependencies.put(module, ModuleRootManager.getInstance(module).getDependencies());
+        }
+
+        // 从每个拥有 appId 的模块出发遍历其传递依赖，按模块顺序追加，结果顺序与模块列表一致
+        Map<Module, List<AppIdInfo>> dependentAppIds = new IdentityHashMap<>();
+        for (Module appModule : modules) {
+            String appId = directAppIds.get(appModule);
+            if (appId == null) {
+                continue;
+            }
+            AppIdInfo info = new AppIdInfo(appId, appModule.getName());
+            Set<Module> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+            visited.add(appModule);
+            Deque<Module> pending = new ArrayDeque<>();
+            pending.push(appModule);
+            while (!pending.isEmpty()) {
+                Module[] moduleDependencies = dependencies.get(pending.pop());
+                if (moduleDependencies == null) {
+                    continue;
+                }
+                for (Module dependency : moduleDependencies) {
+                    if (visited.add(dependency)) {
+                        dependentAppIds.computeIfAbsent(dependency, m -> new ArrayList<>()).add(info);
+                        pending.push(dependency);
+                    }
+                }
+            }
+        }
+
+        Map<Module, List<AppIdInfo>> appIds = new HashMap<>();
+        for (Module module : modules) {
+            String appId = directAppIds.get(module);
+            if (appId != null) {
+                appIds.put(module, List.of(new AppIdInfo(appId, module.getName())));
+            } else if (dependentAppIds.containsKey(module)) {
+                appIds.put(module, List.copyOf(dependentAppIds.get(module)));
+            }
+        }
+        return new AppIdMapping(directAppIds, appIds);
+    }
+
+    /**
+     * 在模块的内容根目录、源码根目录中查找 app.properties 并读取 app.id
+     */
+    private String findAppIdInModule(Module module) {
+        ModuleRootManager rootManager = ModuleRootManager.getInstance(module);
+        for (VirtualFile contentRoot : rootManager.getContentRoots()) {
+            for (String path : CONTENT_ROOT_PATHS) {
+                String appId = readAppId(contentRoot.findFileByRelativePath(path));
+                if (appId != null && !appId.isEmpty()) {
+                    return appId;
+                }
+            }
+        }
+        for (VirtualFile sourceRoot : rootManager.getSourceRoots()) {
+            String appId = readAppId(sourceRoot.findFileByRelativePath(SOURCE_ROOT_PATH));
+            if (appId != null && !appId.isEmpty()) {
+                return appId;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 读取 app.id，文件修改戳未变化时直接使用缓存
+     */
+    private String readAppId(VirtualFile propertiesFile) {
+        if (propertiesFile == null || !propertiesFile.isValid()) {
+            return null;
+        }
+        long stamp = propertiesFile.getModificationStamp();
+        CachedAppId cached = appIdsByFile.get(propertiesFile.getPath());
+        if (cached != null && cached.modificationStamp == stamp) {
+            return cached.appId;
+        }
+        String appId = readAppIdFromFile(propertiesFile);
+        appIdsByFile.put(propertiesFile.getPath(), new CachedAppId(stamp, appId));
+        return appId;
+    }
+
+    private static String readAppIdFromFile(VirtualFile propertiesFile) {
+        try (InputStream inputStream = propertiesFile.getInputStream()) {
+            Properties properties = new Properties();
+            properties.load(inputStream);
+            return properties.getProperty(APP_ID_KEY);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * app.properties 的新建、删除、移动、重命名或内容变化，以及目录的删除、移动、重命名、复制（可能包含 app.properties）；
+     * 目录新建（如构建输出）不影响已有模块的 app.properties，忽略
+     */
+    private static boolean affectsAppProperties(VFileEvent event) {
+        if (event.getPath().endsWith("/" + APP_PROPERTIES_FILE_NAME)) {
+            return true;
+        }
+        if (event instanceof VFileContentChangeEvent || event instanceof VFileCreateEvent) {
+            return false;
+        }
+        VirtualFile file = event.getFile();
+        return file != null && file.isDirectory();
+    }
+
+    @Override
+    public void dispose() {
+        mapping = null;
+        appIdsByFile.clear();
+    }
+
+    private record AppIdMapping(Map<Module, String> directAppIds, Map<Module, List<AppIdInfo>> appIds) {
+    }
+
+    private record CachedAppId(long modificationStamp, String appId) {
+    }
+}
@@ -0,0 +1,76 @@
+package cn.bigcoder.soa.helper.util;
+
+import cn.bigcoder.soa.helper.util.TemplateNode.FunctionCall;
+import cn.bigcoder.soa.helper.util.TemplateNode.Literal;
+import cn.bigcoder.soa.helper.util.TemplateNode.VariableRef;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 编译后的模板
+ *
+ * 模板只在首次使用时扫描一次，得到不可变的语法树；之后每次解析只需遍历语法树，把结果写入同一个预分配的 StringBuilder。
+ * 模板引用的变量名在编译时静态收集，不需要渲染就能知道解析该模板需要哪些变量。
+ */
+public final class CompiledTemplate {
+
+    private final List<TemplateNode> nodes;
+    private final Set<String> variableNames;
+    /**
+     * 全部普通文本的长度，用于预估结果长度
+     */
+    private final int literalLength;
+
+    CompiledTemplate(List<TemplateNode> nodes) {
+        this.nodes = List.copyOf(nodes);
+        Set<String> names = new LinkedHashSet<>();
+        this.literalLength = collect(this.nodes, names);
+        this.variableNames = Collections.unmodifiableSet(names);
+    }
+
+    public List<TemplateNode> getNodes() {
+        return nodes;
+    }
+
+    /**
+     * 模板引用的全部变量名，包括嵌套在函数参数中的变量
+     *
+     * 无参形式的函数调用（如 ${appId()}）在求值时也会优先取同名变量，同样计入
+     */
+    public Set<String> getVariableNames() {
+        return variableNames;
+    }
+
+    String evaluate(TemplateContext context) {
+        StringBuilder out = new StringBuilder(literalLength + 16 * (nodes.size() + 1));
+        for (TemplateNode node : nodes) {
+            node.appendTo(out, context);
+        }
+        return out.toString();
+    }
+
+    private static int collect(List<TemplateNode> nodes, Set<String> names) {
+        int length = 0;
+        for (TemplateNode node : nodes) {
+            if (node instanceof Literal literal) {
+                length += literal.text().length();
+            } else if (node instanceof VariableRef ref) {
+                addName(names, ref.name());
+            } else if (node instanceof FunctionCall call) {
+                if (call.argument().isEmpty()) {
+                    addName(names, call.name());
+                }
+                length += collect(call.argument(), names);
+            }
+        }
+        return length;
+    }
+
+    private static void addName(Set<String> names, String name) {
+        if (!name.isEmpty()) {
+            names.add(name);
+        }
+    }
+}
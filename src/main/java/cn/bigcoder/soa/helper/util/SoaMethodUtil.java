@@ -126,8 +126,16 @@ public class SoaMethodUtil {
 
         // 获取类的虚拟文件路径
         String filePath = psiClass.getContainingFile().getVirtualFile().getPath();
+        return isWorkspaceSourcePath(filePath);
+    }
 
-        // 检查是否为Java源文件（.java文件）且不在jar包、构建输出目录或IDE配置目录中
+    /**
+     * 检查文件路径是否为工作区中的 Java 源文件
+     *
+     * @param filePath 文件路径
+     * @return 是Java源文件（.java文件）且不在jar包、构建输出目录或IDE配置目录中返回true
+     */
+    public static boolean isWorkspaceSourcePath(String filePath) {
         return filePath.endsWith(".java") && !filePath.contains(".jar!") && !filePath.contains("/.idea/")
                 && !filePath.contains("/out/") && !filePath.contains("/build/");
     }
@@ -0,0 +1,47 @@
+package cn.bigcoder.soa.helper.util;
+
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 模板求值上下文
+ *
+ * 每次解析创建一个，携带本次解析的变量和共享的函数注册表，解析器本身不保存任何状态。
+ */
+public final class TemplateContext {
+
+    private final Map<String, String> variables;
+    private final Map<String, Function<String, String>> functions;
+
+    TemplateContext(Map<String, String> variables, Map<String, Function<String, String>> functions) {
+        this.variables = variables;
+        this.functions = functions;
+    }
+
+    /**
+     * 应用函数或获取变量值
+     *
+     * @param name 函数/变量名
+     * @param argument 参数（对于变量为空字符串）
+     * @return 结果值
+     */
+    String apply(String name, String argument) {
+        // 首先检查是否是变量
+        if (argument.isEmpty() && variables.containsKey(name)) {
+            return variables.get(name);
+        }
+
+        // 然后检查是否是函数
+        Function<String, String> function = functions.get(name);
+        if (function != null) {
+            return function.apply(argument);
+        }
+
+        // 未知的函数/变量，返回原始文本（保持 ${} 格式）
+        if (argument.isEmpty()) {
+            return "${" + name + "}";
+        } else {
+            return "${" + name + "(" + argument + ")}";
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package cn.bigcoder.soa.helper.util;
+
+import java.util.List;
+
+/**
+ * 模板语法树节点
+ *
+ * 由 {@link TemplateParser#compile(String)} 生成，创建后不再修改，可以在多次解析之间复用。
+ */
+public sealed interface TemplateNode {
+
+    /**
+     * 把节点的求值结果追加到 out
+     */
+    void appendTo(StringBuilder out, TemplateContext context);
+
+    /**
+     * 普通文本，原样输出
+     */
+    record Literal(String text) implements TemplateNode {
+
+        @Override
+        public void appendTo(StringBuilder out, TemplateContext context) {
+            out.append(text);
+        }
+    }
+
+    /**
+     * 变量引用 ${name}，按无参函数处理：有同名变量时取变量值，否则调用同名函数，都没有时保留原文
+     */
+    record VariableRef(String name) implements TemplateNode {
+
+        @Override
+        public void appendTo(StringBuilder out, TemplateContext context) {
+            out.append(context.apply(name, ""));
+        }
+    }
+
+    /**
+     * 函数调用 ${name(argument)}，参数本身也是一段模板，先求值再作为函数入参
+     */
+    record FunctionCall(String name, List<TemplateNode> argument) implements TemplateNode {
+
+        public FunctionCall {
+            argument = List.copyOf(argument);
+        }
+
+        @Override
+        public void appendTo(StringBuilder out, TemplateContext context) {
+            StringBuilder argumentValue = new StringBuilder();
+            for (TemplateNode node : argument) {
+                node.appendTo(argumentValue, context);
+            }
+            out.append(context.apply(name, argumentValue.toString()));
+        }
+    }
+}
@@ -4,9 +4,13 @@ import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 /**
@@ -26,6 +30,8 @@ import java.util.function.Function;
  * - 函数参数可以包含任意字符，支持嵌套的 $ 引用
  * - 支持引号包裹参数以明确边界（当参数包含括号等歧义字符时）
  * - 清晰、无歧义的语法规则
+ * - 模板首次使用时编译为语法树（{@link CompiledTemplate}）并缓存，之后只需遍历语法树求值
+ * - 解析器无状态，变量通过 {@link TemplateContext} 传递，通过 {@link #getInstance()} 共享同一实例即可
  *
  * 语法使用场景：
  * - 简单变量：${appId}、${methodName}
@@ -49,20 +55,39 @@ import java.util.function.Function;
  */
 public class TemplateParser {
     
-    // 内置函数映射
-    private final Map<String, Function<String, String>> functions = new HashMap<>();
+    /**
+     * 编译结果缓存的上限
+     */
+    private static final int MAX_COMPILED_TEMPLATES = 256;
+    
+    /**
+     * 模板字符串 → 编译后的语法树，编译结果与变量、函数无关，所有实例共享
+     */
+    private static final Map<String, CompiledTemplate> COMPILED_TEMPLATES = new ConcurrentHashMap<>();
+    
+    /**
+     * 内置函数注册表，只读，所有解析共享
+     */
+    private static final Map<String, Function<String, String>> FUNCTIONS = createBuiltInFunctions();
+    
+    /**
+     * 共享实例，解析过程不保存任何状态，可以在多个线程中同时使用
+     */
+    private static final TemplateParser INSTANCE = new TemplateParser();
     
-    // 内置变量（在解析时动态设置）
-    private final Map<String, String> variables = new HashMap<>();
+    private TemplateParser() {
+    }
     
-    public TemplateParser() {
-        registerBuiltInFunctions();
+    public static TemplateParser getInstance() {
+        return INSTANCE;
     }
     
     /**
-     * 注册内置函数
+     * 创建内置函数
      */
-    private void registerBuiltInFunctions() {
+    private static Map<String, Function<String, String>> createBuiltInFunctions() {
+        Map<String, Function<String, String>> functions = new HashMap<>();
+        
         // 转小写
         functions.put("lower", String::toLowerCase);
         
@@ -100,6 +125,8 @@ public class TemplateParser {
                 return str;
             }
         });
+        
+        return Collections.unmodifiableMap(functions);
     }
     
     /**
@@ -114,77 +141,94 @@ public class TemplateParser {
             return template;
         }
         
-        // 保存变量到实例变量
-        this.variables.clear();
-        this.variables.putAll(vars);
-        
-        // 从左到右扫描并替换所有 $ 引用
-        return parseExpression(template);
+        // 遍历编译后的语法树求值
+        return evaluate(compile(template), vars);
+    }
+    
+    /**
+     * 用给定变量对已编译的模板求值
+     * 
+     * @param template 编译后的模板
+     * @param vars 变量映射
+     * @return 解析后的字符串
+     */
+    public String evaluate(CompiledTemplate template, Map<String, String> vars) {
+        // 变量通过求值上下文传递，不写入解析器
+        return template.evaluate(new TemplateContext(vars, FUNCTIONS));
     }
     
     /**
-     * 解析表达式，处理其中的所有 $xxx 或 $xxx(...) 引用
+     * 编译模板为语法树，同一模板字符串只编译一次
      * 
-     * @param text 待解析的文本
-     * @return 解析后的文本
+     * @param template 模板字符串
+     * @return 编译后的模板
      */
-    private String parseExpression(String text) {
-        if (text == null || text.isEmpty()) {
-            return text;
+    public static CompiledTemplate compile(String template) {
+        CompiledTemplate compiled = COMPILED_TEMPLATES.get(template);
+        if (compiled != null) {
+            return compiled;
         }
-        
-        StringBuilder result = new StringBuilder();
+        if (COMPILED_TEMPLATES.size() >= MAX_COMPILED_TEMPLATES) {
+            // 模板来自用户配置，数量很少；设置页预览时每次输入都会产生新模板，超过上限直接清空
+            COMPILED_TEMPLATES.clear();
+        }
+        return COMPILED_TEMPLATES.computeIfAbsent(template, t -> new CompiledTemplate(compileExpression(t)));
+    }
+    
+    /**
+     * 编译表达式，处理其中的所有 ${xxx} 或 ${xxx(...)} 引用
+     * 
+     * @param text 待编译的文本
+     * @return 语法树节点，连续的普通字符合并为一个文本节点
+     */
+    private static List<TemplateNode> compileExpression(String text) {
+        List<TemplateNode> nodes = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
         int i = 0;
         
         while (i < text.length()) {
             char c = text.charAt(i);
             
-            if (c == '$') {
-                // 找到 $ 符号，开始解析变量或函数
+            if (c == '$' && i + 1 < text.length() && text.charAt(i + 1) == '{') {
+                // 找到 ${，开始解析变量或函数
+                if (literal.length() > 0) {
+                    nodes.add(new TemplateNode.Literal(literal.toString()));
+                    literal.setLength(0);
+                }
                 int[] endPos = new int[1];
-                String value = parseReference(text, i, endPos);
-                result.append(value);
+                nodes.add(compileReference(text, i, endPos));
                 i = endPos[0];
             } else {
-                // 普通字符，直接添加
-                result.append(c);
+                // 普通字符（包括后面没有 { 的 $），直接添加
+                literal.append(c);
                 i++;
             }
         }
+        if (literal.length() > 0) {
+            nodes.add(new TemplateNode.Literal(literal.toString()));
+        }
         
-        return result.toString();
+        return nodes;
     }
     
     /**
-     * 从指定位置解析一个 $ 引用（变量或函数调用）
-     * 
-     * 只支持 ${...} 语法，必须用大括号包裹
+     * 从指定位置编译一个 ${...} 引用（变量或函数调用）
      * 
      * @param text 文本
-     * @param startPos $ 符号的位置
+     * @param startPos $ 符号的位置，其后必须是 {
      * @param endPos 输出参数，返回解析结束的位置
-     * @return 解析后的值
+     * @return 变量引用或函数调用节点
      */
-    private String parseReference(String text, int startPos, int[] endPos) {
-        int i = startPos + 1; // 跳过 $
-        
-        // 必须是 ${...} 语法
-        if (i >= text.length() || text.charAt(i) != '{') {
-            // 如果没有 {，返回原始的 $ 符号
-            endPos[0] = startPos + 1;
-            return "$";
-        }
-        
-        i++; // 跳过 {
+    private static TemplateNode compileReference(String text, int startPos, int[] endPos) {
+        int i = startPos + 2; // 跳过 ${
         
         // 提取函数/变量名
-        StringBuilder name = new StringBuilder();
+        int nameStart = i;
         while (i < text.length() && isIdentifierChar(text.charAt(i))) {
-            name.append(text.charAt(i));
             i++;
         }
         
-        String funcName = name.toString();
+        String funcName = text.substring(nameStart, i);
         
         // 检查是否是函数调用（后面跟着括号）
         if (i < text.length() && text.charAt(i) == '(') {
@@ -198,13 +242,9 @@ public class TemplateParser {
                 i++; // 跳过 }
             }
             
-            // 递归解析参数中的 $ 引用
-            String parsedArg = parseExpression(argument);
-            
-            // 应用函数
-            String result = applyFunction(funcName, parsedArg);
+            // 递归编译参数中的 ${} 引用
             endPos[0] = i;
-            return result;
+            return new TemplateNode.FunctionCall(funcName, compileExpression(argument));
         } else {
             // 变量引用（无参函数）
             // 必须有结束的 }
@@ -213,7 +253,7 @@ public class TemplateParser {
             }
             
             endPos[0] = i;
-            return applyFunction(funcName, "");
+            return new TemplateNode.VariableRef(funcName);
         }
     }
     
@@ -232,7 +272,7 @@ public class TemplateParser {
      * @param endPos 输出参数，返回右括号之后的位置
      * @return 参数内容（不包含括号和外层引号）
      */
-    private String extractArgument(String text, int startPos, int[] endPos) {
+    private static String extractArgument(String text, int startPos, int[] endPos) {
         int i = startPos + 1; // 跳过左括号
         StringBuilder arg = new StringBuilder();
         
@@ -337,43 +377,16 @@ public class TemplateParser {
     /**
      * 判断字符是否是标识符字符
      */
-    private boolean isIdentifierChar(char c) {
+    private static boolean isIdentifierChar(char c) {
         return Character.isLetterOrDigit(c) || c == '_';
     }
     
-    /**
-     * 应用函数或获取变量值
-     * 
-     * @param name 函数/变量名
-     * @param argument 参数（对于变量为空字符串）
-     * @return 结果值
-     */
-    private String applyFunction(String name, String argument) {
-        // 首先检查是否是变量
-        if (argument.isEmpty() && variables.containsKey(name)) {
-            return variables.get(name);
-        }
-        
-        // 然后检查是否是函数
-        Function<String, String> function = functions.get(name);
-        if (function != null) {
-            return function.apply(argument);
-        }
-        
-        // 未知的函数/变量，返回原始文本（保持 ${} 格式）
-        if (argument.isEmpty()) {
-            return "${" + name + "}";
-        } else {
-            return "${" + name + "(" + argument + ")}";
-        }
-    }
-
     /**
      * 获取所有支持的函数名称
      *
      * @return 函数名称列表
      */
     public String[] getSupportedFunctions() {
-        return functions.keySet().toArray(new String[0]);
+        return FUNCTIONS.keySet().toArray(new String[0]);
     }
 }
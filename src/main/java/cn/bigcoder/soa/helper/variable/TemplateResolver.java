@@ -1,34 +1,66 @@
 package cn.bigcoder.soa.helper.variable;
 
+import cn.bigcoder.soa.helper.util.CompiledTemplate;
 import cn.bigcoder.soa.helper.util.TemplateParser;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * 模板解析编排器 —— 实现分组懒加载。
  *
  * 流程：
- * 1. 用基础变量做第一轮渲染
- * 2. 扫描渲染结果中剩余的 ${...} 占位符
- * 3. 通过 Registry 找到这些占位符所属的 VariableGroup（去重）
- * 4. 只调用需要的 Group 的 resolve()
- * 5. 合并新变量，做第二轮渲染
+ * 1. 取模板编译后的语法树（按模板缓存），得到模板引用的全部变量名
+ * 2. 去掉基础变量，剩下的变量名通过 Registry 找到所属的 VariableGroup（去重），
+ *    再按各 Group 的 {@link VariableGroup#getRequiredVariables()} 补齐它们依赖的 Group
+ * 3. 只调用需要的 Group 的 resolve()：都能同步返回时在当前线程依次解析；
+ *    有 Group 需要异步加载时，互不依赖的 Group 在有界线程池中并发解析，依赖其他 Group 的在依赖完成后解析
+ * 4. 合并新变量，遍历语法树渲染一次
+ *
+ * 判断是否需要异步加载、需要哪些 Group 都只依赖模板结构，不需要先渲染模板。
  */
 public class TemplateResolver {
 
     /**
-     * 匹配纯变量占位符 ${name}，不匹配函数调用 ${name(...)}
-     * 注意：也需要匹配嵌套在函数参数中的变量，如 ${lower(${momProjectId})} 中的 momProjectId
+     * 未指定时异步解析的整体时间预算
+     */
+    private static final long DEFAULT_TIMEOUT_MILLIS = 30_000;
+    /**
+     * 等待期间检查取消状态的间隔
+     */
+    private static final long CANCEL_CHECK_INTERVAL_MILLIS = 50;
+    private static final int RESOLVE_PARALLELISM = 4;
+
+    /**
+     * 变量组解析线程池，基于 IDE 共享线程池限制并发数
      */
-    private static final Pattern UNRESOLVED_VAR_PATTERN = Pattern.compile("\\$\\{(\\w+)\\}");
+    private static final ExecutorService RESOLVE_EXECUTOR = AppExecutorUtil.createBoundedApplicationPoolExecutor(
+            "SOA Helper Variable Resolve", RESOLVE_PARALLELISM);
 
     private final VariableGroupRegistry registry;
-    private final TemplateParser parser = new TemplateParser();
+    private final TemplateParser parser = TemplateParser.getInstance();
+    private final long timeoutMillis;
 
     public TemplateResolver(VariableGroupRegistry registry) {
+        this(registry, DEFAULT_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * @param registry 变量组注册表
+     * @param timeoutMillis 异步解析全部 Group 的整体时间预算（毫秒），不是单次请求的超时；
+     *                      由此得到的截止时间会传给各 Group，作为其请求超时的上限
+     */
+    public TemplateResolver(VariableGroupRegistry registry, long timeoutMillis) {
         this.registry = registry;
+        this.timeoutMillis = timeoutMillis;
     }
 
     /**
@@ -41,53 +73,67 @@ public class TemplateResolver {
      */
     public String resolve(String template, Map<String, String> basicVars)
             throws VariableResolveException {
+        return resolve(template, basicVars, null);
+    }
 
-        // 第一轮：用基础变量渲染
-        String firstPass = parser.parse(template, basicVars);
-
-        // 扫描剩余未解析的变量名
-        Set<String> unresolvedVars = extractUnresolvedVariables(firstPass);
-
-        if (unresolvedVars.isEmpty()) {
-            return firstPass;
+    /**
+     * 解析模板，按需懒加载变量组。
+     *
+     * @param template URL 模板
+     * @param basicVars 基础变量（appId, methodName）
+     * @param indicator 后台任务的进度指示器，用户取消时停止等待；为 null 时只受整体超时限制
+     * @return 完全解析后的 URL
+     * @throws VariableResolveException 某个 Group 解析失败或整体超时时抛出
+     */
+    public String resolve(String template, Map<String, String> basicVars, @Nullable ProgressIndicator indicator)
+            throws VariableResolveException {
+        if (template == null || template.isEmpty()) {
+            return template;
         }
 
+        CompiledTemplate compiled = TemplateParser.compile(template);
+
         // 找到需要调用的 Group（去重）
-        Set<VariableGroup> neededGroups = registry.findGroupsForVariables(unresolvedVars);
+        Set<VariableGroup> neededGroups = findNeededGroups(compiled, basicVars);
 
         if (neededGroups.isEmpty()) {
-            // 未解析的变量不属于任何已注册的 Group，返回第一轮结果
-            return firstPass;
+            // 模板只用到基础变量，或其余变量不属于任何已注册的 Group
+            return parser.evaluate(compiled, basicVars);
         }
 
-        // 逐个 Group 解析，收集新变量
-        Map<String, String> allVars = new HashMap<>(basicVars);
-        for (VariableGroup group : neededGroups) {
+        Map<VariableGroup, Set<VariableGroup>> dependencies = collectDependencies(neededGroups, basicVars);
+        List<VariableGroup> order = sortByDependencies(dependencies);
+        for (VariableGroup group : order) {
             if (!group.isAvailable()) {
                 throw new VariableResolveException(
                         "模板使用了扩展变量，请在设置中启用扩展字段功能并完成配置");
             }
-            Map<String, String> resolved = group.resolve(allVars);
-            allVars.putAll(resolved);
         }
 
-        // 第二轮：用完整变量表渲染
-        return parser.parse(template, allVars);
+        Map<String, String> allVars = new HashMap<>(basicVars);
+        if (order.stream().anyMatch(group -> group.needsAsyncResolve(basicVars))) {
+            allVars.putAll(resolveConcurrently(order, dependencies, basicVars, indicator));
+        } else {
+            // 全部命中缓存或无 IO，按依赖顺序依次解析
+            for (VariableGroup group : order) {
+                allVars.putAll(group.resolve(allVars));
+            }
+        }
+
+        // 用完整变量表渲染
+        return parser.evaluate(compiled, allVars);
     }
 
     /**
      * 检查模板是否有 Group 需要异步加载。
-     * 用于在跳转前判断是否需要弹出进度对话框。
+     * 用于在跳转前判断是否需要转到后台任务中解析。
      */
     public boolean needsAsyncResolve(String template, Map<String, String> basicVars) {
-        String firstPass = parser.parse(template, basicVars);
-        Set<String> unresolvedVars = extractUnresolvedVariables(firstPass);
-
-        if (unresolvedVars.isEmpty()) {
+        if (template == null || template.isEmpty()) {
             return false;
         }
 
-        Set<VariableGroup> neededGroups = registry.findGroupsForVariables(unresolvedVars);
+        Set<VariableGroup> neededGroups = findNeededGroups(TemplateParser.compile(template), basicVars);
         for (VariableGroup group : neededGroups) {
             if (group.needsAsyncResolve(basicVars)) {
                 return true;
@@ -97,26 +143,183 @@ public class TemplateResolver {
     }
 
     /**
-     * 从渲染结果中提取未解析的变量名。
-     * 匹配 ${variableName} 模式，排除已知的内置函数名。
+     * 根据模板引用的变量名找到需要调用的 Group，基础变量已提供的变量不再查找。
+     * 变量名来自语法树，嵌套在函数参数中的变量同样会被找到。
+     */
+    private Set<VariableGroup> findNeededGroups(CompiledTemplate compiled, Map<String, String> basicVars) {
+        Set<String> unresolvedVars = new LinkedHashSet<>();
+        for (String name : compiled.getVariableNames()) {
+            if (!basicVars.containsKey(name)) {
+                unresolvedVars.add(name);
+            }
+        }
+        if (unresolvedVars.isEmpty()) {
+            return Collections.emptySet();
+        }
+        return registry.findGroupsForVariables(unresolvedVars);
+    }
+
+    /**
+     * 收集每个 Group 依赖的其他 Group，模板没有直接用到、但被依赖的 Group 也会加入
      */
-    public static Set<String> extractUnresolvedVariables(String text) {
-        Set<String> result = new HashSet<>();
-        if (text == null || text.isEmpty()) {
-            return result;
+    private Map<VariableGroup, Set<VariableGroup>> collectDependencies(Set<VariableGroup> neededGroups,
+            Map<String, String> basicVars) {
+        Map<VariableGroup, Set<VariableGroup>> dependencies = new LinkedHashMap<>();
+        Deque<VariableGroup> pending = new ArrayDeque<>(neededGroups);
+        while (!pending.isEmpty()) {
+            VariableGroup group = pending.poll();
+            if (dependencies.containsKey(group)) {
+                continue;
+            }
+            Set<String> requiredVars = new LinkedHashSet<>();
+            for (String name : group.getRequiredVariables()) {
+                if (!basicVars.containsKey(name) && !group.getVariableNames().contains(name)) {
+                    requiredVars.add(name);
+                }
+            }
+            Set<VariableGroup> groupDependencies = requiredVars.isEmpty()
+                    ? Collections.emptySet() : registry.findGroupsForVariables(requiredVars);
+            dependencies.put(group, groupDependencies);
+            pending.addAll(groupDependencies);
+        }
+        return dependencies;
+    }
+
+    /**
+     * 按依赖关系排序，被依赖的 Group 排在前面
+     */
+    private static List<VariableGroup> sortByDependencies(Map<VariableGroup, Set<VariableGroup>> dependencies)
+            throws VariableResolveException {
+        List<VariableGroup> order = new ArrayList<>(dependencies.size());
+        Set<VariableGroup> visiting = new HashSet<>();
+        Set<VariableGroup> visited = new HashSet<>();
+        for (VariableGroup group : dependencies.keySet()) {
+            visit(group, dependencies, visiting, visited, order);
+        }
+        return order;
+    }
+
+    private static void visit(VariableGroup group, Map<VariableGroup, Set<VariableGroup>> dependencies,
+            Set<VariableGroup> visiting, Set<VariableGroup> visited, List<VariableGroup> order)
+            throws VariableResolveException {
+        if (visited.contains(group)) {
+            return;
+        }
+        if (!visiting.add(group)) {
+            throw new VariableResolveException("扩展变量之间存在循环依赖：" + group.getVariableNames());
         }
+        for (VariableGroup dependency : dependencies.get(group)) {
+            visit(dependency, dependencies, visiting, visited, order);
+        }
+        visiting.remove(group);
+        visited.add(group);
+        order.add(group);
+    }
 
-        // 内置函数名不算未解析变量
-        Set<String> builtinFunctions = Set.of(
-                "lower", "upper", "urlEncode", "urlDecode", "base64Encode", "base64Decode");
+    /**
+     * 在线程池中解析全部 Group：每个 Group 在其依赖完成后立即开始，互不依赖的 Group 并发执行。
+     * 任一 Group 失败、整体超时或用户取消时立即返回，不再等待其余 Group（已发出的请求在后台结束，结果仍会写入各自的缓存）。
+     * 截止时间同时传给各 Group 的 {@link VariableGroup#resolve(Map, long)}，超时后仍在进行的请求也会在截止时间附近结束。
+     */
+    private Map<String, String> resolveConcurrently(List<VariableGroup> order,
+            Map<VariableGroup, Set<VariableGroup>> dependencies, Map<String, String> basicVars,
+            @Nullable ProgressIndicator indicator) throws VariableResolveException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        Map<VariableGroup, CompletableFuture<Map<String, String>>> futures = new LinkedHashMap<>();
+        CompletableFuture<Void> firstFailure = new CompletableFuture<>();
+        for (VariableGroup group : order) {
+            List<CompletableFuture<Map<String, String>>> groupDependencies = new ArrayList<>();
+            for (VariableGroup dependency : dependencies.get(group)) {
+                groupDependencies.add(futures.get(dependency));
+            }
+            CompletableFuture<Map<String, String>> future = CompletableFuture
+                    .allOf(groupDependencies.toArray(new CompletableFuture[0]))
+                    .thenApplyAsync(ignored -> {
+                        Map<String, String> context = new HashMap<>(basicVars);
+                        for (CompletableFuture<Map<String, String>> dependency : groupDependencies) {
+                            context.putAll(dependency.join());
+                        }
+                        return resolveGroup(group, context, deadline);
+                    }, RESOLVE_EXECUTOR);
+            future.whenComplete((result, error) -> {
+                if (error != null) {
+                    firstFailure.completeExceptionally(error);
+                }
+            });
+            futures.put(group, future);
+        }
 
-        Matcher matcher = UNRESOLVED_VAR_PATTERN.matcher(text);
-        while (matcher.find()) {
-            String varName = matcher.group(1);
-            if (!builtinFunctions.contains(varName)) {
-                result.add(varName);
+        CompletableFuture<Object> done = CompletableFuture.anyOf(
+                CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[0])), firstFailure);
+        try {
+            await(done, deadline, indicator);
+            // 按依赖顺序合并，结果与串行解析一致
+            Map<String, String> resolved = new HashMap<>();
+            for (CompletableFuture<Map<String, String>> future : futures.values()) {
+                resolved.putAll(future.join());
+            }
+            return resolved;
+        } catch (CompletionException e) {
+            throw unwrap(e);
+        } finally {
+            for (CompletableFuture<Map<String, String>> future : futures.values()) {
+                future.cancel(false);
             }
         }
-        return result;
+    }
+
+    /**
+     * 等待解析完成，期间响应用户取消，超过截止时间后放弃
+     */
+    private void await(CompletableFuture<?> future, long deadline, @Nullable ProgressIndicator indicator)
+            throws VariableResolveException {
+        while (true) {
+            if (indicator != null) {
+                indicator.checkCanceled();
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                throw new VariableResolveException("扩展字段获取超时（" + timeoutMillis + "ms），请检查网络或增大超时时间");
+            }
+            try {
+                future.get(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(CANCEL_CHECK_INTERVAL_MILLIS)),
+                        TimeUnit.NANOSECONDS);
+                return;
+            } catch (TimeoutException e) {
+                // 继续等待
+            } catch (ExecutionException e) {
+                throw unwrap(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new VariableResolveException("扩展字段获取被中断", e);
+            }
+        }
+    }
+
+    private static Map<String, String> resolveGroup(VariableGroup group, Map<String, String> context,
+            long deadline) {
+        try {
+            return group.resolve(context, deadline);
+        } catch (VariableResolveException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * 取出线程池中抛出的原始异常
+     */
+    private static VariableResolveException unwrap(Exception e) {
+        Throwable cause = e;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof VariableResolveException resolveException) {
+            return resolveException;
+        }
+        if (cause instanceof RuntimeException runtimeException && !(cause instanceof CompletionException)) {
+            throw runtimeException;
+        }
+        return new VariableResolveException("扩展字段解析失败：" + cause.getMessage(), cause);
     }
 }
@@ -1,5 +1,6 @@
 package cn.bigcoder.soa.helper.variable;
 
+import java.util.Collections;
 import java.util.Map;
 import java.util.Set;
 
@@ -15,6 +16,15 @@ public interface VariableGroup {
      */
     Set<String> getVariableNames();
 
+    /**
+     * 解析该组时需要从上下文读取的变量名（如 {"appId"}）。
+     * 这些变量由基础变量或其他 Group 提供，用于确定 Group 之间的依赖关系：
+     * 不依赖其他 Group 的变量组可以并发解析。默认不依赖任何变量。
+     */
+    default Set<String> getRequiredVariables() {
+        return Collections.emptySet();
+    }
+
     /**
      * 一次性解析该组所有变量。
      *
@@ -24,6 +34,21 @@ public interface VariableGroup {
      */
     Map<String, String> resolve(Map<String, String> context) throws VariableResolveException;
 
+    /**
+     * 在截止时间前解析该组所有变量。
+     * 涉及网络 IO 的实现应以截止前的剩余时间作为请求超时的上限，截止后请求随之结束，不再占用解析线程。
+     * 默认忽略截止时间。
+     *
+     * @param context 上下文变量
+     * @param deadlineNanos 截止时间，以 {@link System#nanoTime()} 为基准
+     * @return 变量名 → 变量值 的映射
+     * @throws VariableResolveException 解析失败或已到截止时间时抛出
+     */
+    default Map<String, String> resolve(Map<String, String> context, long deadlineNanos)
+            throws VariableResolveException {
+        return resolve(context);
+    }
+
     /**
      * 该组是否可用（如：扩展字段开关是否开启、配置是否完整）
      */
@@ -15,6 +15,7 @@ import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * MOM 契约平台变量组。
@@ -29,6 +30,12 @@ public class MomApiVariableGroup implements VariableGroup {
             "momProjectId", "momVersion", "serviceCode"
     );
 
+    /** 按 appId 查询契约平台 */
+    private static final Set<String> REQUIRED_VARIABLES = Set.of("appId");
+
+    /** 没有截止时间，请求超时只取配置值 */
+    private static final long NO_DEADLINE = Long.MAX_VALUE;
+
     /** 缓存：appId → CacheEntry */
     private final Map<String, CacheEntry> cache = new ConcurrentHashMap<>();
 
@@ -37,6 +44,11 @@ public class MomApiVariableGroup implements VariableGroup {
         return VARIABLE_NAMES;
     }
 
+    @Override
+    public Set<String> getRequiredVariables() {
+        return REQUIRED_VARIABLES;
+    }
+
     @Override
     public boolean isAvailable() {
         SoaHelperSettings settings = SoaHelperSettings.getInstance();
@@ -57,6 +69,12 @@ public class MomApiVariableGroup implements VariableGroup {
 
     @Override
     public Map<String, String> resolve(Map<String, String> context) throws VariableResolveException {
+        return resolve(context, NO_DEADLINE);
+    }
+
+    @Override
+    public Map<String, String> resolve(Map<String, String> context, long deadlineNanos)
+            throws VariableResolveException {
         String appId = context.get("appId");
         if (appId == null || appId.isEmpty()) {
             LOG.warn("Resolve failed: missing appId in context");
@@ -72,7 +90,7 @@ public class MomApiVariableGroup implements VariableGroup {
         LOG.debug("MOM cache miss for appId=" + appId + ", fetching from API");
 
         // 调用 API
-        Map<String, String> result = fetchFromApi(appId);
+        Map<String, String> result = fetchFromApi(appId, deadlineNanos);
 
         // 写入缓存
         int ttl = SoaHelperSettings.getInstance().getMomCacheTtl();
@@ -82,13 +100,13 @@ public class MomApiVariableGroup implements VariableGroup {
     }
 
     /**
-     * 调用 MOM 契约平台 API
+     * 调用 MOM 契约平台 API，连接、读取超时取配置值与截止前剩余时间中的较小值
      */
-    private Map<String, String> fetchFromApi(String appId) throws VariableResolveException {
+    private Map<String, String> fetchFromApi(String appId, long deadlineNanos) throws VariableResolveException {
         SoaHelperSettings settings = SoaHelperSettings.getInstance();
         String baseUrl = settings.getMomBaseUrl();
         String token = settings.getMomAccessToken();
-        int timeout = settings.getMomTimeout();
+        int timeout = requestTimeout(settings.getMomTimeout(), deadlineNanos);
 
         LOG.info("MOM request start: appId=" + appId
                 + ", extendedFieldsEnabled=" + settings.isExtendedFieldsEnabled()
@@ -230,6 +248,22 @@ public class MomApiVariableGroup implements VariableGroup {
         }
     }
 
+    /**
+     * 单次请求的连接、读取超时：不超过配置值，也不超过截止前的剩余时间
+     */
+    private static int requestTimeout(int configuredTimeout, long deadlineNanos) throws VariableResolveException {
+        if (deadlineNanos == NO_DEADLINE) {
+            return configuredTimeout;
+        }
+        long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+        if (remainingMillis <= 0) {
+            throw new VariableResolveException("契约平台请求超时，请检查网络或增大超时时间");
+        }
+        // URLConnection 的超时为 0 表示不限制
+        return configuredTimeout <= 0 ? (int) Math.min(Integer.MAX_VALUE, remainingMillis)
+                : (int) Math.min(configuredTimeout, remainingMillis);
+    }
+
     private static void logProxyInfo(HttpURLConnection connection, URL url) {
         boolean usingProxy = connection.usingProxy();
         String proxyHost = "https".equalsIgnoreCase(url.getProtocol())
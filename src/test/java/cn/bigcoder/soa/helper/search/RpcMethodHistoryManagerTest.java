@@ -0,0 +1,47 @@
+package cn.bigcoder.soa.helper.search;
+
+import java.util.List;
+
+/**
+ * 方法选择历史测试
+ */
+public class RpcMethodHistoryManagerTest {
+
+    private static final int HISTORY_SIZE = 100;
+    private static final int OLD_PICKS = 3;
+
+    private static int failures;
+
+    public static void main(String[] args) {
+        System.out.println("=== 历史记录已满时选择新方法 ===\n");
+        RpcMethodHistoryManager manager = new RpcMethodHistoryManager();
+        // 每个旧方法选择多次，衰减后的使用次数都大于新方法的 1 次
+        for (int pick = 0; pick < OLD_PICKS; pick++) {
+            for (int i = 0; i < HISTORY_SIZE; i++) {
+                manager.addToHistory(new RpcMethodHistoryInfo("method" + i, "com.x.OldService"));
+            }
+        }
+        manager.addToHistory(new RpcMethodHistoryInfo("create", "com.x.NewService"));
+
+        List<RpcMethodHistoryInfo> histories = manager.getHistories();
+        report(histories.size() == HISTORY_SIZE, "历史记录数: " + histories.size());
+        RpcMethodHistoryInfo first = histories.get(0);
+        report("com.x.NewService".equals(first.getClassName()) && "create".equals(first.getMethodName()),
+                "第一条记录: " + first.getClassName() + "#" + first.getMethodName());
+        long oldCount = histories.stream().filter(entry -> "com.x.OldService".equals(entry.getClassName())).count();
+        report(oldCount == HISTORY_SIZE - 1, "淘汰一条旧记录后剩余: " + oldCount);
+
+        System.out.println();
+        if (failures > 0) {
+            throw new IllegalStateException(failures + " 项检查失败");
+        }
+        System.out.println("全部通过");
+    }
+
+    private static void report(boolean passed, String message) {
+        if (!passed) {
+            failures++;
+        }
+        System.out.println((passed ? "[通过] " : "[失败] ") + message);
+    }
+}
@@ -0,0 +1,63 @@
+package cn.bigcoder.soa.helper.search;
+
+import java.util.List;
+
+/**
+ * 带类名条件的搜索词解析及搜索测试
+ */
+public class RpcMethodQueryTest {
+
+    private static int failures;
+
+    public static void main(String[] args) {
+        System.out.println("=== 搜索词解析 ===\n");
+        checkParse("getUser", "", "getUser", false);
+        checkParse("OrderService.create", "OrderService", "create", false);
+        checkParse("order#create", "order", "create", false);
+        checkParse("hotel.OrderService.create", "hotel.OrderService", "create", true);
+        checkParse("order service create", "orderservice", "create", false);
+        checkParse("hotel order service create", "hotelorderservice", "create", false);
+        checkParse("OrderService.", "OrderService", "", false);
+
+        System.out.println("\n=== 空格分隔的搜索 ===\n");
+        RpcMethodNameIndex index = new RpcMethodNameIndex();
+        index.add(new RpcMethodInfo("createOrder", "com.x.OrderService", "/src/OrderService.java", 10));
+        index.add(new RpcMethodInfo("create", "com.x.OrderService", "/src/OrderService.java", 20));
+        index.add(new RpcMethodInfo("create", "com.x.UserService", "/src/UserService.java", 10));
+        index.add(new RpcMethodInfo("create", "com.x.HotelOrderServiceImpl", "/src/HotelOrderServiceImpl.java", 10));
+
+        checkSearch(index, "order service create", "com.x.OrderService", "create");
+        checkSearch(index, "hotel order service create", "com.x.HotelOrderServiceImpl", "create");
+        checkSearch(index, "user service create", "com.x.UserService", "create");
+
+        System.out.println();
+        if (failures > 0) {
+            throw new IllegalStateException(failures + " 项检查失败");
+        }
+        System.out.println("全部通过");
+    }
+
+    private static void checkParse(String text, String classPart, String methodPart, boolean qualified) {
+        RpcMethodQuery query = RpcMethodQuery.parse(text);
+        boolean passed = query.classPart().equals(classPart) && query.methodPart().equals(methodPart)
+                && query.matchesQualifiedClassName() == qualified;
+        report(passed, "\"" + text + "\" → " + query + ", 全限定名匹配: " + query.matchesQualifiedClassName());
+    }
+
+    /**
+     * 第一条结果应为指定的类和方法
+     */
+    private static void checkSearch(RpcMethodNameIndex index, String text, String className, String methodName) {
+        List<RpcMethodInfo> results = index.search(text);
+        boolean passed = !results.isEmpty() && results.get(0).className().equals(className)
+                && results.get(0).methodName().equals(methodName);
+        report(passed, "\"" + text + "\" → " + (results.isEmpty() ? "无结果" : results.get(0)));
+    }
+
+    private static void report(boolean passed, String message) {
+        if (!passed) {
+            failures++;
+        }
+        System.out.println((passed ? "[通过] " : "[失败] ") + message);
+    }
+}
@@ -0,0 +1,287 @@
+package cn.bigcoder.soa.helper.search;
+
+import cn.bigcoder.soa.helper.listener.FileChangeListener;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.application.WriteAction;
+import com.intellij.openapi.progress.EmptyProgressIndicator;
+import com.intellij.openapi.vfs.VfsUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.testFramework.PlatformTestUtil;
+import com.intellij.testFramework.VfsTestUtil;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Future;
+
+/**
+ * 全量扫描及增量更新基准
+ *
+ * 在轻量测试项目中生成指定规模的类（默认 1k/10k/50k），其中一部分实现带 {@code @BaijiContract} 注解的契约接口，统计：
+ * <ul>
+ *     <li>全量扫描耗时：首次扫描（包含实现类索引的构建）及索引就绪后的再次扫描</li>
+ *     <li>单个文件 {@link RpcMethodCache#updateCacheForFile} 的耗时</li>
+ *     <li>批量修改文件（如切换分支）时，从第一个 VFS 事件到 {@link FileChangeListener} 更新完缓存的耗时</li>
+ * </ul>
+ * 结果以 JSON 写入 build/reports/soa-scan-benchmark.json，供 CI 对比。基准耗时较长，不在 test 任务中运行，
+ * 通过单独的 scanBenchmark 任务执行，规模等参数通过系统属性配置：
+ * <pre>
+ * ./gradlew scanBenchmark -Psoa.benchmark.sizes=1000,10000 -Psoa.benchmark.soaFraction=0.2
+ * </pre>
+ */
+public class RpcMethodScanBenchmark extends LightJavaCodeInsightFixtureTestCase {
+
+    private static final String SIZES_PROPERTY = "soa.benchmark.sizes";
+    private static final String SOA_FRACTION_PROPERTY = "soa.benchmark.soaFraction";
+    private static final String OUTPUT_PROPERTY = "soa.benchmark.output";
+
+    private static final int CONTRACT_COUNT = 20;
+    private static final int METHODS_PER_CONTRACT = 5;
+    private static final int UPDATE_SAMPLES = 200;
+    private static final int STORM_FILES = 500;
+    /**
+     * 批量修改中每个文件被连续写入的次数，模拟分支切换、格式化等短时间内的重复事件
+     */
+    private static final int STORM_WRITES_PER_FILE = 3;
+    private static final int TIMEOUT_SECONDS = 600;
+
+    public void testScanThroughput() throws Exception {
+        int[] sizes = Arrays.stream(System.getProperty(SIZES_PROPERTY, "1000,10000,50000").split(","))
+                .map(String::trim).mapToInt(Integer::parseInt).toArray();
+        double soaFraction = Double.parseDouble(System.getProperty(SOA_FRACTION_PROPERTY, "0.2"));
+
+        RpcMethodCache cache = RpcMethodCache.getInstance(getProject());
+        // 轻量测试不执行插件的启动活动，手动注册文件变更监听
+        new FileChangeListener(getProject(), cache);
+        createContracts();
+
+        List<String> results = new ArrayList<>();
+        for (int size : sizes) {
+            results.add(runRound(cache, size, soaFraction));
+        }
+        writeResults(results, soaFraction);
+    }
+
+    private String runRound(RpcMethodCache cache, int size, double soaFraction) throws Exception {
+        int soaClassCount = (int) Math.round(size * soaFraction);
+        VirtualFile directory = generateProject(size, soaClassCount);
+        int expectedMethods = soaClassCount * METHODS_PER_CONTRACT;
+
+        long coldScan = timeScan(cache);
+        assertEquals("首次扫描的方法数", expectedMethods, cache.getMethodCount());
+        long warmScan = timeScan(cache);
+        assertEquals("再次扫描的方法数", expectedMethods, cache.getMethodCount());
+
+        long[] updates = timeUpdateCacheForFile(cache, directory, Math.min(UPDATE_SAMPLES, soaClassCount));
+        assertEquals("增量更新后的方法数", expectedMethods, cache.getMethodCount());
+
+        int stormFiles = Math.min(STORM_FILES, soaClassCount);
+        long storm = timeFileChangeStorm(cache, directory, stormFiles);
+        assertEquals("批量修改后的方法数", expectedMethods + stormFiles, cache.getMethodCount());
+
+        WriteAction.run(() -> directory.delete(this));
+        PlatformTestUtil.waitWithEventsDispatching("删除生成的文件后缓存未清空", () -> cache.getMethodCount() == 0,
+                TIMEOUT_SECONDS);
+
+        String result = String.format(Locale.ROOT,
+                "{\"classes\": %d, \"soaClasses\": %d, \"methods\": %d, \"coldScanMillis\": %.1f, "
+                        + "\"warmScanMillis\": %.1f, \"updateCacheForFileAvgMicros\": %.1f, "
+                        + "\"updateCacheForFileP99Micros\": %.1f, \"stormFiles\": %d, \"stormEvents\": %d, "
+                        + "\"stormMillis\": %.1f}",
+                size, soaClassCount, expectedMethods, coldScan / 1e6, warmScan / 1e6, avg(updates) / 1e3,
+                p99(updates) / 1e3, stormFiles, stormFiles * STORM_WRITES_PER_FILE, storm / 1e6);
+        System.out.println(result);
+        return result;
+    }
+
+    /**
+     * 在后台线程同步执行一次全量扫描，返回耗时（纳秒）
+     */
+    private static long timeScan(RpcMethodCache cache) {
+        long start = System.nanoTime();
+        Future<?> future = ApplicationManager.getApplication().executeOnPooledThread(
+                () -> cache.scanRpcMethodsWithProgressBatched(new EmptyProgressIndicator()));
+        PlatformTestUtil.waitForFuture(future, TIMEOUT_SECONDS * 1000L);
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * 逐个重新解析 SOA 实现类文件，返回每个文件的耗时（纳秒）
+     */
+    private long[] timeUpdateCacheForFile(RpcMethodCache cache, VirtualFile directory, int count) {
+        PsiManager psiManager = PsiManager.getInstance(getProject());
+        long[] samples = new long[count];
+        for (int i = 0; i < count; i++) {
+            VirtualFile file = directory.findFileByRelativePath(soaClassPath(i));
+            assertNotNull(file);
+            PsiFile psiFile = ReadAction.compute(() -> psiManager.findFile(file));
+            long start = System.nanoTime();
+            ReadAction.run(() -> cache.updateCacheForFile(psiFile));
+            samples[i] = System.nanoTime() - start;
+        }
+        return samples;
+    }
+
+    /**
+     * 短时间内反复修改一批 SOA 实现类文件（每个文件增加一个方法），返回从第一次写入到缓存更新完成的耗时（纳秒）
+     */
+    private long timeFileChangeStorm(RpcMethodCache cache, VirtualFile directory, int fileCount) throws IOException {
+        int expected = cache.getMethodCount() + fileCount;
+        List<VirtualFile> files = new ArrayList<>(fileCount);
+        for (int i = 0; i < fileCount; i++) {
+            files.add(directory.findFileByRelativePath(soaClassPath(i)));
+        }
+        long start = System.nanoTime();
+        for (int write = 1; write <= STORM_WRITES_PER_FILE; write++) {
+            int revision = write;
+            WriteAction.runAndWait(() -> {
+                for (int i = 0; i < files.size(); i++) {
+                    VfsUtil.saveText(files.get(i), soaClassText(i, revision));
+                }
+            });
+        }
+        PlatformTestUtil.waitWithEventsDispatching("批量修改后缓存未在超时时间内更新",
+                () -> cache.getMethodCount() == expected, TIMEOUT_SECONDS);
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * 生成注解及契约接口桩代码
+     */
+    private void createContracts() {
+        VirtualFile root = myFixture.getTempDirFixture().getFile("");
+        VfsTestUtil.createFile(root, "com/ctriposs/baiji/rpc/common/BaijiContract.java", """
+                package com.ctriposs.baiji.rpc.common;
+
+                import java.lang.annotation.*;
+
+                @Retention(RetentionPolicy.RUNTIME)
+                @Target(ElementType.TYPE)
+                public @interface BaijiContract {
+                }
+                """);
+        for (int contract = 0; contract < CONTRACT_COUNT; contract++) {
+            StringBuilder text = new StringBuilder()
+                    .append("package bench.contract;\n\n")
+                    .append("import com.ctriposs.baiji.rpc.common.BaijiContract;\n\n")
+                    .append("@BaijiContract\n")
+                    .append("public interface Contract").append(contract).append(" {\n");
+            for (int method = 0; method < METHODS_PER_CONTRACT; method++) {
+                text.append("    String ").append(contractMethodName(contract, method)).append("(String request);\n");
+            }
+            text.append("}\n");
+            VfsTestUtil.createFile(root, "bench/contract/Contract" + contract + ".java", text.toString());
+        }
+    }
+
+    /**
+     * 生成 size 个类，前 soaClassCount 个实现契约接口，其余为普通类
+     */
+    private VirtualFile generateProject(int size, int soaClassCount) {
+        VirtualFile root = myFixture.getTempDirFixture().getFile("");
+        String directoryName = "gen" + size;
+        WriteAction.runAndWait(() -> {
+            for (int i = 0; i < size; i++) {
+                if (i < soaClassCount) {
+                    VfsTestUtil.createFile(root, directoryName + "/" + soaClassPath(i), soaClassText(i, 0));
+                } else {
+                    VfsTestUtil.createFile(root, directoryName + "/" + plainClassPath(i), plainClassText(i));
+                }
+            }
+        });
+        VirtualFile directory = root.findChild(directoryName);
+        assertNotNull(directory);
+        return directory;
+    }
+
+    private static String soaClassPath(int index) {
+        return "service" + (index % 100) + "/ServiceImpl" + index + ".java";
+    }
+
+    private static String plainClassPath(int index) {
+        return "model" + (index % 100) + "/Model" + index + ".java";
+    }
+
+    /**
+     * SOA 实现类，revision 大于 0 时额外增加一个契约方法的重载（同样有 Override 注解），用于观察增量更新
+     */
+    private static String soaClassText(int index, int revision) {
+        int contract = index % CONTRACT_COUNT;
+        StringBuilder text = new StringBuilder()
+                .append("package service").append(index % 100).append(";\n\n")
+                .append("import bench.contract.Contract").append(contract).append(";\n\n")
+                .append("public class ServiceImpl").append(index).append(" implements Contract").append(contract)
+                .append(" {\n");
+        for (int method = 0; method < METHODS_PER_CONTRACT; method++) {
+            text.append("    @Override\n")
+                    .append("    public String ").append(contractMethodName(contract, method))
+                    .append("(String request) {\n")
+                    .append("        return helper(request);\n")
+                    .append("    }\n\n");
+        }
+        if (revision > 0) {
+            text.append("    @Override\n")
+                    .append("    public String toString() {\n")
+                    .append("        return \"revision ").append(revision).append("\";\n")
+                    .append("    }\n\n");
+        }
+        text.append("    private String helper(String request) {\n")
+                .append("        return request.trim();\n")
+                .append("    }\n")
+                .append("}\n");
+        return text.toString();
+    }
+
+    private static String plainClassText(int index) {
+        return "package model" + (index % 100) + ";\n\n"
+                + "public class Model" + index + " implements java.io.Serializable {\n"
+                + "    private String name;\n\n"
+                + "    public String getName() {\n"
+                + "        return name;\n"
+                + "    }\n\n"
+                + "    public void setName(String name) {\n"
+                + "        this.name = name;\n"
+                + "    }\n"
+                + "}\n";
+    }
+
+    private static String contractMethodName(int contract, int method) {
+        String[] verbs = {"get", "query", "create", "update", "check"};
+        return verbs[method] + "Order" + contract;
+    }
+
+    private static void writeResults(List<String> results, double soaFraction) {
+        Path output = Path.of(System.getProperty(OUTPUT_PROPERTY, "build/reports/soa-scan-benchmark.json"));
+        String json = String.format(Locale.ROOT,
+                "{\n  \"soaFraction\": %s,\n  \"availableProcessors\": %d,\n  \"results\": [\n    %s\n  ]\n}\n",
+                soaFraction, Runtime.getRuntime().availableProcessors(), String.join(",\n    ", results));
+        try {
+            Files.createDirectories(output.toAbsolutePath().getParent());
+            Files.writeString(output, json, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("写入基准结果失败: " + output, e);
+        }
+    }
+
+    private static double avg(long[] samples) {
+        return Arrays.stream(samples).average().orElse(0);
+    }
+
+    private static double p99(long[] samples) {
+        if (samples.length == 0) {
+            return 0;
+        }
+        long[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        return sorted[(int) Math.ceil(sorted.length * 0.99) - 1];
+    }
+}
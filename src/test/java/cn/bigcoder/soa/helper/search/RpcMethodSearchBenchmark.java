@@ -0,0 +1,109 @@
+package cn.bigcoder.soa.helper.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * 方法搜索逐键延迟基准
+ *
+ * 模拟用户逐字输入搜索词，统计 10k/100k/500k 个方法下每次按键的耗时：
+ * 倒排索引匹配、原先“正则遍历全部方法”的匹配、包含排序的完整搜索，以及复用上一次结果的会话搜索。
+ */
+public class RpcMethodSearchBenchmark {
+
+    private static final String[] VERBS = {"get", "query", "create", "update", "delete", "check", "list", "batch",
+            "search", "sync", "submit", "cancel", "validate"};
+    private static final String[] NOUNS = {"User", "Order", "Product", "Hotel", "Flight", "Price", "Coupon",
+            "Member", "Payment", "Refund", "Inventory", "Address", "Invoice", "Status", "Health", "Info", "Detail",
+            "Config", "Room", "Ticket"};
+    private static final String[] QUERIES = {"getuserorder", "createpayment", "chkhealth", "qoi"};
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        for (int size : new int[]{10_000, 100_000, 500_000}) {
+            List<RpcMethodInfo> methods = generateMethods(size, new Random(size));
+            RpcMethodNameIndex index = new RpcMethodNameIndex();
+            methods.forEach(index::add);
+
+            System.out.println("=== " + size + " 个方法 ===");
+            for (String query : QUERIES) {
+                long[] indexed = measureKeystrokes(query, index::findSubsequenceMatches);
+                long[] regex = measureKeystrokes(query, q -> regexSearch(methods, q));
+                long[] ranked = measureKeystrokes(query, index::search);
+                long[] session = measureKeystrokes(query, index.newSearchSession()::search);
+                System.out.printf("%-14s 匹配(索引): avg %7.3f ms, p99 %7.3f ms | 匹配(正则遍历): avg %7.3f ms, "
+                                + "p99 %7.3f ms | 匹配+排序: avg %7.3f ms, p99 %7.3f ms | 会话增量: avg %7.3f ms, "
+                                + "p99 %7.3f ms%n",
+                        query, avgMillis(indexed), p99Millis(indexed), avgMillis(regex), p99Millis(regex),
+                        avgMillis(ranked), p99Millis(ranked), avgMillis(session), p99Millis(session));
+            }
+            System.out.println();
+        }
+    }
+
+    /**
+     * 逐键输入 query，返回每次按键的耗时（纳秒）
+     */
+    private static long[] measureKeystrokes(String query, Function<String, List<RpcMethodInfo>> search) {
+        long[] samples = new long[query.length() * ROUNDS];
+        int sample = 0;
+        long sink = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            for (int i = 1; i <= query.length(); i++) {
+                String prefix = query.substring(0, i);
+                long start = System.nanoTime();
+                sink += search.apply(prefix).size();
+                samples[sample++] = System.nanoTime() - start;
+            }
+        }
+        if (sink == Long.MIN_VALUE) {
+            System.out.println(sink);
+        }
+        return samples;
+    }
+
+    /**
+     * 原先的实现：构造 .*? 连接的正则，遍历全部方法匹配
+     */
+    private static List<RpcMethodInfo> regexSearch(List<RpcMethodInfo> methods, String query) {
+        String regex = query.chars().mapToObj(c -> String.valueOf((char) c)).collect(Collectors.joining(".*?"));
+        Pattern pattern = Pattern.compile(regex);
+        List<RpcMethodInfo> results = new ArrayList<>();
+        for (RpcMethodInfo method : methods) {
+            if (pattern.matcher(method.methodName().toLowerCase()).find()) {
+                results.add(method);
+            }
+        }
+        return results;
+    }
+
+    static List<RpcMethodInfo> generateMethods(int size, Random random) {
+        List<RpcMethodInfo> methods = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            StringBuilder name = new StringBuilder(VERBS[random.nextInt(VERBS.length)]);
+            int nounCount = 1 + random.nextInt(3);
+            for (int j = 0; j < nounCount; j++) {
+                name.append(NOUNS[random.nextInt(NOUNS.length)]);
+            }
+            String className = "com.ctrip.soa.service" + (i % 500) + "." + NOUNS[i % NOUNS.length] + "ServiceImpl";
+            methods.add(new RpcMethodInfo(name.toString(), className, "/src/" + className.replace('.', '/') + ".java",
+                    i));
+        }
+        return methods;
+    }
+
+    private static double avgMillis(long[] samples) {
+        return Arrays.stream(samples).average().orElse(0) / 1_000_000.0;
+    }
+
+    private static double p99Millis(long[] samples) {
+        long[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        return sorted[(int) Math.ceil(sorted.length * 0.99) - 1] / 1_000_000.0;
+    }
+}
@@ -1,5 +1,6 @@
 package cn.bigcoder.soa.helper.settings;
 
+import cn.bigcoder.soa.helper.util.CompiledTemplate;
 import cn.bigcoder.soa.helper.util.TemplateParser;
 import java.util.HashMap;
 import java.util.Map;
@@ -7,7 +8,7 @@ import java.util.Map;
 public class TemplateParserTest {
 
     public static void main(String[] args) {
-        TemplateParser parser = new TemplateParser();
+        TemplateParser parser = TemplateParser.getInstance();
 
         Map<String, String> variables = new HashMap<>();
         variables.put("appId", "100017451");
@@ -34,5 +35,13 @@ public class TemplateParserTest {
         System.out.println("left参数值是否包含'table': " + leftValue.contains("table"));
         System.out.println("left参数值是否包含'urlEncode': " + leftValue.contains("urlEncode"));
         System.out.println();
+
+        System.out.println("=== 模板编译测试 ===\n");
+
+        CompiledTemplate compiled = TemplateParser.compile(userTemplate);
+        System.out.println("引用的变量: " + compiled.getVariableNames());
+        System.out.println("重复编译是否复用缓存: " + (compiled == TemplateParser.compile(userTemplate)));
+        System.out.println("再次解析结果是否一致: " + result.equals(parser.parse(userTemplate, variables)));
+        System.out.println();
     }
 }